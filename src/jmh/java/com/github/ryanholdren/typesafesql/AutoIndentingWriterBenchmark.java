@@ -0,0 +1,120 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AutoIndentingWriterBenchmark {
+
+	@Param({"10", "200"})
+	public int numberOfColumns;
+
+	private JavaClassWriter generator;
+	private String unindented;
+	private AutoIndentingWriter writer;
+
+	@Setup
+	public void setUp() throws SQLException, IOException {
+		final PostgresField[] parameters = new PostgresField[numberOfColumns];
+		final PostgresField[] columns = new PostgresField[numberOfColumns];
+		final StringBuilder sql = new StringBuilder("-- Schema: public\nSELECT\n");
+		for (int index = 0; index < numberOfColumns; index ++) {
+			parameters[index] = PostgresField.from("parameter" + index, "int8", false);
+			columns[index] = PostgresField.from("column" + index, index % 2 == 0 ? "text" : "int4", index % 3 == 0);
+			sql.append("\tcolumn").append(index).append(index + 1 < numberOfColumns ? ",\n" : "\n");
+		}
+		sql.append("FROM generated\nWHERE true\n");
+		for (int index = 0; index < numberOfColumns; index ++) {
+			sql.append("\tAND key").append(index).append(" = :parameter").append(index).append('\n');
+		}
+		generator = ImmutableJavaClassWriter
+			.builder()
+			.namespace("com.example.queries")
+			.className("Generated")
+			.sql(ParsedSQL.parse(sql.toString()))
+			.parameters(Parameters.of(parameters))
+			.resultColumns(ResultColumns.of(columns))
+			.supportPackage("typesafesql")
+			.addBackends(Backend.PG_ASYNC)
+			.build();
+		writer = new AutoIndentingWriter();
+		generator.writeTo(writer);
+		unindented = writer.toString().replaceAll("(?m)^\t+", "");
+	}
+
+	@Benchmark
+	public int generateJavaClass() throws IOException {
+		writer.reset();
+		generator.writeTo(writer);
+		return writer.encode().remaining();
+	}
+
+	@Benchmark
+	public int indentInBulk() {
+		writer.reset();
+		writer.write(unindented);
+		return writer.encode().remaining();
+	}
+
+	@Benchmark
+	public int indentOneCharacterAtATime() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final BufferedWriter output = new BufferedWriter(new OutputStreamWriter(bytes, UTF_8))) {
+			final CharacterAtATimeWriter writer = new CharacterAtATimeWriter(output);
+			for (int index = 0; index < unindented.length(); index ++) {
+				writer.write(unindented.charAt(index));
+			}
+		}
+		return bytes.size();
+	}
+
+	private static class CharacterAtATimeWriter {
+
+		private static final String NEW_LINE = System.getProperty("line.separator");
+		private static final char LAST_CHARACTER_OF_LINE_BREAK = NEW_LINE.charAt(NEW_LINE.length() - 1);
+
+		private final BufferedWriter writer;
+		private boolean isAtStartOfLine = true;
+		private int indent;
+
+		private CharacterAtATimeWriter(BufferedWriter writer) {
+			this.writer = writer;
+		}
+
+		private void write(char character) throws IOException {
+			if (character == '}' || character == ')') {
+				indent --;
+			}
+			if (isAtStartOfLine) {
+				for (int count = 0; count < indent; count ++) {
+					writer.write('\t');
+				}
+				isAtStartOfLine = false;
+			}
+			writer.write(character);
+			if (character == LAST_CHARACTER_OF_LINE_BREAK) {
+				isAtStartOfLine = true;
+			}
+			if (character == '{' || character == '(') {
+				indent ++;
+			}
+		}
+
+	}
+
+}
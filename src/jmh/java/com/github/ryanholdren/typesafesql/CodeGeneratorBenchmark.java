@@ -0,0 +1,90 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CodeGeneratorBenchmark {
+
+	@Param({"10", "1000", "10000"})
+	public int numberOfQueries;
+
+	private List<SyntheticQuery> queries;
+	private List<JavaClassWriter> generators;
+	private AutoIndentingWriter writer;
+
+	@Setup
+	public void setUp() throws SQLException {
+		queries = SyntheticQuery.generate(numberOfQueries);
+		generators = new ArrayList<>(numberOfQueries);
+		for (final SyntheticQuery query : queries) {
+			generators.add(query.toJavaClassWriter());
+		}
+		writer = new AutoIndentingWriter();
+	}
+
+	@Benchmark
+	public void scanSQL(Blackhole blackhole) {
+		for (final SyntheticQuery query : queries) {
+			blackhole.consume(ParsedSQL.parse(query.getSql()));
+		}
+	}
+
+	@Benchmark
+	public void mapPostgresTypes(Blackhole blackhole) throws SQLException {
+		for (final SyntheticQuery query : queries) {
+			final String[] typeNames = query.getColumnTypeNames();
+			final boolean[] nullability = query.getColumnNullability();
+			for (int index = 0; index < typeNames.length; index ++) {
+				blackhole.consume(PostgresType.from(typeNames[index], nullability[index]));
+			}
+		}
+	}
+
+	@Benchmark
+	public void describeParameters(Blackhole blackhole) throws SQLException {
+		for (final SyntheticQuery query : queries) {
+			blackhole.consume(Parameters.from(query.getParameterNames(), query.getParameterMetaData()));
+		}
+	}
+
+	@Benchmark
+	public void describeResultColumns(Blackhole blackhole) throws SQLException {
+		for (final SyntheticQuery query : queries) {
+			blackhole.consume(ResultColumns.from(query.getResultSetMetaData()));
+		}
+	}
+
+	@Benchmark
+	public void writeJavaClasses(Blackhole blackhole) throws IOException {
+		for (final JavaClassWriter generator : generators) {
+			writer.reset();
+			generator.writeTo(writer);
+			blackhole.consume(writer.encode());
+		}
+	}
+
+	@Benchmark
+	public void generateJavaClasses(Blackhole blackhole) throws SQLException, IOException {
+		for (final SyntheticQuery query : queries) {
+			writer.reset();
+			query.toJavaClassWriter().writeTo(writer);
+			blackhole.consume(writer.encode());
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParameterBindingBenchmark {
+
+	private final FindPeopleParameters parameters = new FindPeopleParameters();
+
+	@Benchmark
+	public Object[] passGettersThrough() {
+		return new Object[] {
+			parameters.getId(),
+			parameters.getId(),
+			parameters.getTeam(),
+			parameters.getName(),
+			parameters.getName(),
+			parameters.getAge(),
+			parameters.getLimit(),
+		};
+	}
+
+	@Benchmark
+	public Object[] encodeByType() {
+		return parameters.toArray();
+	}
+
+	@Benchmark
+	public int passGettersThroughAndFormat() {
+		return format(passGettersThrough());
+	}
+
+	@Benchmark
+	public int encodeByTypeAndFormat() {
+		return format(encodeByType());
+	}
+
+	private static int format(Object[] values) {
+		int length = 0;
+		for (final Object value : values) {
+			if (value != null) {
+				length += value.toString().length();
+			}
+		}
+		return length;
+	}
+
+	private static final class FindPeopleParameters {
+
+		private final long id = 1_000_000L;
+		private final int team = 1_000;
+		private final Optional<String> name = Optional.of("Ada");
+		private final OptionalInt age = OptionalInt.of(36);
+		private final long limit = 50;
+
+		public long getId() {
+			return id;
+		}
+
+		public int getTeam() {
+			return team;
+		}
+
+		public Optional<String> getName() {
+			return name;
+		}
+
+		public OptionalInt getAge() {
+			return age;
+		}
+
+		public long getLimit() {
+			return limit;
+		}
+
+		public Object[] toArray() {
+			final Object id = getId();
+			final Object name = getName().orElse(null);
+			return new Object[] {
+				id,
+				id,
+				getTeam(),
+				name,
+				name,
+				getAge().isPresent() ? (Integer) getAge().getAsInt() : null,
+				getLimit(),
+			};
+		}
+
+	}
+
+}
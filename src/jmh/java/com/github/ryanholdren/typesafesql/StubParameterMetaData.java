@@ -0,0 +1,72 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.sql.ParameterMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+class StubParameterMetaData implements ParameterMetaData {
+
+	private final String[] typeNames;
+	private final boolean[] nullability;
+
+	StubParameterMetaData(String[] typeNames, boolean[] nullability) {
+		this.typeNames = typeNames;
+		this.nullability = nullability;
+	}
+
+	@Override
+	public int getParameterCount() {
+		return typeNames.length;
+	}
+
+	@Override
+	public int isNullable(int parameter) {
+		return nullability[parameter - 1] ? parameterNullable : parameterNoNulls;
+	}
+
+	@Override
+	public boolean isSigned(int parameter) {
+		return true;
+	}
+
+	@Override
+	public int getPrecision(int parameter) {
+		return 0;
+	}
+
+	@Override
+	public int getScale(int parameter) {
+		return 0;
+	}
+
+	@Override
+	public int getParameterType(int parameter) {
+		return Types.OTHER;
+	}
+
+	@Override
+	public String getParameterTypeName(int parameter) {
+		return typeNames[parameter - 1];
+	}
+
+	@Override
+	public String getParameterClassName(int parameter) {
+		return Object.class.getName();
+	}
+
+	@Override
+	public int getParameterMode(int parameter) {
+		return parameterModeIn;
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> type) throws SQLException {
+		throw new SQLException("Not a wrapper!");
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> type) {
+		return false;
+	}
+
+}
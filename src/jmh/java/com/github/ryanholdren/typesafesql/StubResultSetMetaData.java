@@ -0,0 +1,134 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+class StubResultSetMetaData implements ResultSetMetaData {
+
+	private final String[] names;
+	private final String[] typeNames;
+	private final boolean[] nullability;
+
+	StubResultSetMetaData(String[] names, String[] typeNames, boolean[] nullability) {
+		this.names = names;
+		this.typeNames = typeNames;
+		this.nullability = nullability;
+	}
+
+	@Override
+	public int getColumnCount() {
+		return names.length;
+	}
+
+	@Override
+	public boolean isAutoIncrement(int column) {
+		return false;
+	}
+
+	@Override
+	public boolean isCaseSensitive(int column) {
+		return true;
+	}
+
+	@Override
+	public boolean isSearchable(int column) {
+		return true;
+	}
+
+	@Override
+	public boolean isCurrency(int column) {
+		return false;
+	}
+
+	@Override
+	public int isNullable(int column) {
+		return nullability[column - 1] ? columnNullable : columnNoNulls;
+	}
+
+	@Override
+	public boolean isSigned(int column) {
+		return true;
+	}
+
+	@Override
+	public int getColumnDisplaySize(int column) {
+		return 0;
+	}
+
+	@Override
+	public String getColumnLabel(int column) {
+		return names[column - 1];
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return names[column - 1];
+	}
+
+	@Override
+	public String getSchemaName(int column) {
+		return "public";
+	}
+
+	@Override
+	public int getPrecision(int column) {
+		return 0;
+	}
+
+	@Override
+	public int getScale(int column) {
+		return 0;
+	}
+
+	@Override
+	public String getTableName(int column) {
+		return "synthetic";
+	}
+
+	@Override
+	public String getCatalogName(int column) {
+		return "";
+	}
+
+	@Override
+	public int getColumnType(int column) {
+		return Types.OTHER;
+	}
+
+	@Override
+	public String getColumnTypeName(int column) {
+		return typeNames[column - 1];
+	}
+
+	@Override
+	public boolean isReadOnly(int column) {
+		return true;
+	}
+
+	@Override
+	public boolean isWritable(int column) {
+		return false;
+	}
+
+	@Override
+	public boolean isDefinitelyWritable(int column) {
+		return false;
+	}
+
+	@Override
+	public String getColumnClassName(int column) {
+		return Object.class.getName();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> type) throws SQLException {
+		throw new SQLException("Not a wrapper!");
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> type) {
+		return false;
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class SyntheticQuery {
+
+	private static final String[] TYPE_NAMES = {
+		"bool", "int2", "int4", "int8", "float4", "float8", "numeric", "char", "text", "varchar",
+		"uuid", "date", "time", "timetz", "timestamp", "timestamptz", "bytea", "jsonb"
+	};
+
+	public static final int MAXIMUM_NUMBER_OF_PARAMETERS = 50;
+	public static final int MAXIMUM_NUMBER_OF_COLUMNS = 200;
+
+	public static List<SyntheticQuery> generate(int numberOfQueries) {
+		final Random random = new Random(numberOfQueries);
+		final List<SyntheticQuery> queries = new ArrayList<>(numberOfQueries);
+		for (int index = 0; index < numberOfQueries; index ++) {
+			queries.add(new SyntheticQuery(
+				"Query" + index,
+				random.nextInt(MAXIMUM_NUMBER_OF_PARAMETERS + 1),
+				1 + random.nextInt(MAXIMUM_NUMBER_OF_COLUMNS),
+				random
+			));
+		}
+		return queries;
+	}
+
+	private final String className;
+	private final String sql;
+	private final String[] parameterNames;
+	private final String[] parameterTypeNames;
+	private final boolean[] parameterNullability;
+	private final String[] columnNames;
+	private final String[] columnTypeNames;
+	private final boolean[] columnNullability;
+
+	private SyntheticQuery(String className, int numberOfParameters, int numberOfColumns, Random random) {
+		this.className = className;
+		this.parameterNames = new String[numberOfParameters];
+		this.parameterTypeNames = new String[numberOfParameters];
+		this.parameterNullability = new boolean[numberOfParameters];
+		this.columnNames = new String[numberOfColumns];
+		this.columnTypeNames = new String[numberOfColumns];
+		this.columnNullability = new boolean[numberOfColumns];
+		final StringBuilder sql = new StringBuilder();
+		sql.append("-- Schema: public\n");
+		sql.append("-- Implements: com.example.Identifiable\n");
+		sql.append("SELECT\n");
+		for (int index = 0; index < numberOfColumns; index ++) {
+			columnNames[index] = "column" + index;
+			columnTypeNames[index] = TYPE_NAMES[random.nextInt(TYPE_NAMES.length)];
+			columnNullability[index] = random.nextBoolean();
+			sql.append("\tt.column").append(index).append("::").append(columnTypeNames[index]);
+			sql.append(index + 1 < numberOfColumns ? ",\n" : "\n");
+		}
+		sql.append("FROM synthetic AS t -- a comment with :colons\n");
+		sql.append("WHERE t.label <> 'a literal with :colons'\n");
+		for (int index = 0; index < numberOfParameters; index ++) {
+			parameterNames[index] = "parameter" + index;
+			parameterTypeNames[index] = TYPE_NAMES[random.nextInt(TYPE_NAMES.length)];
+			parameterNullability[index] = random.nextBoolean();
+			sql.append("\tAND t.key").append(index).append(" = :parameter").append(index).append('\n');
+		}
+		this.sql = sql.toString();
+	}
+
+	public String getClassName() {
+		return className;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public String[] getColumnTypeNames() {
+		return columnTypeNames;
+	}
+
+	public boolean[] getColumnNullability() {
+		return columnNullability;
+	}
+
+	public StubParameterMetaData getParameterMetaData() {
+		return new StubParameterMetaData(parameterTypeNames, parameterNullability);
+	}
+
+	public StubResultSetMetaData getResultSetMetaData() {
+		return new StubResultSetMetaData(columnNames, columnTypeNames, columnNullability);
+	}
+
+	public List<String> getParameterNames() {
+		final List<String> names = new ArrayList<>(parameterNames.length);
+		for (final String name : parameterNames) {
+			names.add(name);
+		}
+		return names;
+	}
+
+	public JavaClassWriter toJavaClassWriter() throws SQLException {
+		final ParsedSQL parsed = ParsedSQL.parse(sql);
+		return ImmutableJavaClassWriter
+			.builder()
+			.namespace("com.example.queries")
+			.className(className)
+			.sql(parsed)
+			.parameters(Parameters.from(parsed.getParameterNames(), getParameterMetaData()))
+			.resultColumns(ResultColumns.from(getResultSetMetaData()))
+			.supportPackage("typesafesql")
+			.addBackends(Backend.PG_ASYNC)
+			.build();
+	}
+
+}
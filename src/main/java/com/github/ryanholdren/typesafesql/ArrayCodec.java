@@ -0,0 +1,157 @@
+package com.github.ryanholdren.typesafesql;
+
+class ArrayCodec {
+
+	public static final String SUPPORT_CLASS = "PostgresArrays";
+
+	public static boolean isList(PostgresType type) {
+		return type.getJavaType().contains("List<");
+	}
+
+	public static boolean isPrimitive(PostgresType type) {
+		switch (type) {
+			case DOUBLE_ARRAY:
+			case INTEGER_ARRAY:
+			case LONG_ARRAY:
+			case OPTIONAL_DOUBLE_ARRAY:
+			case OPTIONAL_INTEGER_ARRAY:
+			case OPTIONAL_LONG_ARRAY:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	public static String getElementClassOf(PostgresType type) {
+		switch (type) {
+			case BIG_DECMIAL_LIST:
+			case OPTIONAL_BIG_DECMIAL_LIST:
+				return "BigDecimal";
+			case BOOLEAN_LIST:
+			case OPTIONAL_BOOLEAN_LIST:
+				return "Boolean";
+			case DOUBLE_ARRAY:
+			case OPTIONAL_DOUBLE_ARRAY:
+				return "Double";
+			case FLOAT_LIST:
+			case OPTIONAL_FLOAT_LIST:
+				return "Float";
+			case INTEGER_ARRAY:
+			case OPTIONAL_INTEGER_ARRAY:
+				return "Integer";
+			case LOCAL_DATE_LIST:
+			case OPTIONAL_LOCAL_DATE_LIST:
+				return "LocalDate";
+			case LOCAL_DATE_TIME_LIST:
+			case OPTIONAL_LOCAL_DATE_TIME_LIST:
+				return "LocalDateTime";
+			case LONG_ARRAY:
+			case OPTIONAL_LONG_ARRAY:
+				return "Long";
+			case OFFSET_DATE_TIME_LIST:
+			case OPTIONAL_OFFSET_DATE_TIME_LIST:
+				return "OffsetDateTime";
+			case OPTIONAL_SHORT_LIST:
+			case SHORT_LIST:
+				return "Short";
+			case OPTIONAL_STRING_ARRAY:
+			case STRING_ARRAY:
+				return "String";
+			case OPTIONAL_UUID_ARRAY:
+			case UUID_ARRAY:
+				return "UUID";
+			default:
+				throw new IllegalArgumentException(type + " is not an array!");
+		}
+	}
+
+	public static String getElementTypeNameOf(PostgresType type) {
+		switch (type) {
+			case BIG_DECMIAL_LIST:
+			case OPTIONAL_BIG_DECMIAL_LIST:
+				return "numeric";
+			case BOOLEAN_LIST:
+			case OPTIONAL_BOOLEAN_LIST:
+				return "bool";
+			case DOUBLE_ARRAY:
+			case OPTIONAL_DOUBLE_ARRAY:
+				return "float8";
+			case FLOAT_LIST:
+			case OPTIONAL_FLOAT_LIST:
+				return "float4";
+			case INTEGER_ARRAY:
+			case OPTIONAL_INTEGER_ARRAY:
+				return "int4";
+			case LOCAL_DATE_LIST:
+			case OPTIONAL_LOCAL_DATE_LIST:
+				return "date";
+			case LOCAL_DATE_TIME_LIST:
+			case OPTIONAL_LOCAL_DATE_TIME_LIST:
+				return "timestamp";
+			case LONG_ARRAY:
+			case OPTIONAL_LONG_ARRAY:
+				return "int8";
+			case OFFSET_DATE_TIME_LIST:
+			case OPTIONAL_OFFSET_DATE_TIME_LIST:
+				return "timestamptz";
+			case OPTIONAL_SHORT_LIST:
+			case SHORT_LIST:
+				return "int2";
+			case OPTIONAL_STRING_ARRAY:
+			case STRING_ARRAY:
+				return "text";
+			case OPTIONAL_UUID_ARRAY:
+			case UUID_ARRAY:
+				return "uuid";
+			default:
+				throw new IllegalArgumentException(type + " is not an array!");
+		}
+	}
+
+	public static boolean hasBinaryElements(PostgresType type) {
+		switch (getElementTypeNameOf(type)) {
+			case "float4":
+			case "float8":
+			case "int2":
+			case "int4":
+			case "int8":
+			case "text":
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	public static String getDecoderOf(PostgresType type, String array) {
+		switch (type) {
+			case DOUBLE_ARRAY:
+			case OPTIONAL_DOUBLE_ARRAY:
+				return SUPPORT_CLASS + ".toDoubleArray(" + array + ')';
+			case INTEGER_ARRAY:
+			case OPTIONAL_INTEGER_ARRAY:
+				return SUPPORT_CLASS + ".toIntArray(" + array + ')';
+			case LONG_ARRAY:
+			case OPTIONAL_LONG_ARRAY:
+				return SUPPORT_CLASS + ".toLongArray(" + array + ')';
+			case OPTIONAL_STRING_ARRAY:
+			case STRING_ARRAY:
+				return SUPPORT_CLASS + ".toStringArray(" + array + ')';
+			case OPTIONAL_UUID_ARRAY:
+			case UUID_ARRAY:
+				return SUPPORT_CLASS + ".toUUIDArray(" + array + ')';
+			default:
+				return SUPPORT_CLASS + ".toList(" + array + ", " + SUPPORT_CLASS + "::to" + getElementClassOf(type) + ')';
+		}
+	}
+
+	public static String getBoxedArrayOf(PostgresType type, String value) {
+		if (isPrimitive(type)) {
+			return SUPPORT_CLASS + ".box(" + value + ')';
+		}
+		if (isList(type)) {
+			return value + ".toArray(new " + getElementClassOf(type) + "[0])";
+		}
+		return value;
+	}
+
+}
@@ -1,33 +1,75 @@
 package com.github.ryanholdren.typesafesql;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.Arrays;
 
 public class AutoIndentingWriter extends Writer {
 
 	private static final String NEW_LINE = System.getProperty("line.separator");
 	private static final char LAST_CHARACTER_OF_LINE_BREAK = NEW_LINE.charAt(NEW_LINE.length() - 1);
+	private static final int DEFAULT_CAPACITY = 16 * 1024;
 
-	private final BufferedWriter writer;
+	private static volatile String[] indents = { "" };
+
+	private static String getIndent(int indent) {
+		if (indent <= 0) {
+			return "";
+		}
+		final String[] cached = indents;
+		if (indent < cached.length) {
+			return cached[indent];
+		}
+		final String[] grown = Arrays.copyOf(cached, indent * 2);
+		for (int index = cached.length; index < grown.length; index ++) {
+			grown[index] = grown[index - 1] + '\t';
+		}
+		indents = grown;
+		return grown[indent];
+	}
+
+	private static boolean isSpecial(char character) {
+		switch (character) {
+			case '{':
+			case '(':
+			case '}':
+			case ')':
+				return true;
+			default:
+				return character == LAST_CHARACTER_OF_LINE_BREAK;
+		}
+	}
+
+	private final StringBuilder buffer;
 	private boolean isAtStartOfLine = true;
 	private int indent;
 
-	public AutoIndentingWriter(BufferedWriter writer) {
-		this.writer = writer;
+	public AutoIndentingWriter() {
+		this(new StringBuilder(DEFAULT_CAPACITY));
 	}
 
-	public void write(char character) throws IOException {
+	public AutoIndentingWriter(StringBuilder buffer) {
+		this.buffer = buffer;
+	}
+
+	public void write(char character) {
 		if (character == '}' || character == ')') {
 			indent --;
 		}
 		if (isAtStartOfLine) {
-			for (int count = 0; count < indent; count ++) {
-				writer.write('\t');
-			}
+			buffer.append(getIndent(indent));
 			isAtStartOfLine = false;
 		}
-		writer.write(character);
+		buffer.append(character);
 		if (character == LAST_CHARACTER_OF_LINE_BREAK) {
 			isAtStartOfLine = true;
 		}
@@ -37,43 +79,118 @@ public class AutoIndentingWriter extends Writer {
 	}
 
 	@Override
-	public void write(char[] characters, int offset, int length) throws IOException {
-		for (int index = 0; index < length; index ++) {
-			final char character = characters[index + offset];
-			write(character);
+	public void write(int character) {
+		write((char) character);
+	}
+
+	@Override
+	public void write(char[] characters, int offset, int length) {
+		write(CharBuffer.wrap(characters), offset, length);
+	}
+
+	@Override
+	public void write(String string) {
+		write(string, 0, string.length());
+	}
+
+	@Override
+	public void write(String string, int offset, int length) {
+		write((CharSequence) string, offset, length);
+	}
+
+	private void write(CharSequence characters, int offset, int length) {
+		final int end = offset + length;
+		int startOfRun = offset;
+		for (int index = offset; index < end; index ++) {
+			final char character = characters.charAt(index);
+			if (isSpecial(character)) {
+				appendRun(characters, startOfRun, index);
+				write(character);
+				startOfRun = index + 1;
+			}
 		}
+		appendRun(characters, startOfRun, end);
 	}
 
-	public final void writeLine(Object ... parts) throws IOException {
+	private void appendRun(CharSequence characters, int start, int end) {
+		if (start == end) {
+			return;
+		}
+		if (isAtStartOfLine) {
+			buffer.append(getIndent(indent));
+			isAtStartOfLine = false;
+		}
+		buffer.append(characters, start, end);
+	}
+
+	public final void writeLine(Object ... parts) {
 		write(parts);
 		write(NEW_LINE);
 	}
 
-	public final void write(Object ... parts) throws IOException {
-		final int indexOfLastPart = parts.length - 1;
-		for (int index = 0; index <= indexOfLastPart; index ++) {
-			final String part = parts[index].toString();
-			write(part);
+	public final void write(Object ... parts) {
+		for (final Object part : parts) {
+			if (part instanceof String) {
+				write((String) part);
+			} else if (part instanceof Character) {
+				write(((Character) part).charValue());
+			} else {
+				write(part.toString());
+			}
 		}
 	}
 
-	public final void writeEmptyLine() throws IOException {
-		writer.write(NEW_LINE);
+	public final void writeVerbatim(String text) {
+		buffer.append(text);
+		isAtStartOfLine = text.isEmpty() ? isAtStartOfLine : text.charAt(text.length() - 1) == LAST_CHARACTER_OF_LINE_BREAK;
+	}
+
+	public final void writeEmptyLine() {
+		buffer.append(NEW_LINE);
 		isAtStartOfLine = true;
 	}
 
-	public final void writeLineBreak() throws IOException {
+	public final void writeLineBreak() {
 		write(NEW_LINE);
 	}
 
+	public ByteBuffer encode() {
+		return UTF_8.encode(CharBuffer.wrap(buffer));
+	}
+
+	public boolean writeTo(Path file) throws IOException {
+		final ByteBuffer bytes = encode();
+		if (Files.isRegularFile(file) && Files.size(file) == bytes.remaining()) {
+			if (ByteBuffer.wrap(Files.readAllBytes(file)).equals(bytes)) {
+				return false;
+			}
+		}
+		Files.createDirectories(file.getParent());
+		try (final FileChannel channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE)) {
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+		}
+		return true;
+	}
+
+	public void reset() {
+		buffer.setLength(0);
+		isAtStartOfLine = true;
+		indent = 0;
+	}
+
+	@Override
+	public String toString() {
+		return buffer.toString();
+	}
+
 	@Override
-	public void flush() throws IOException {
-		writer.flush();
+	public void flush() {
 	}
 
 	@Override
-	public void close() throws IOException {
-		writer.close();
+	public void close() {
 	}
 
 }
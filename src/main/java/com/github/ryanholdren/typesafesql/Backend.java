@@ -0,0 +1,7 @@
+package com.github.ryanholdren.typesafesql;
+
+public enum Backend {
+	PG_ASYNC,
+	JDBC,
+	R2DBC
+}
@@ -0,0 +1,87 @@
+package com.github.ryanholdren.typesafesql;
+
+import com.google.common.base.Splitter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+import static java.util.regex.Pattern.DOTALL;
+import static java.util.regex.Pattern.compile;
+
+class BulkInsert implements Constants {
+
+	private static final String IDENTIFIER = "(?:\"(?:[^\"]|\"\")+\"|[A-Za-z_][A-Za-z0-9_$]*)";
+	private static final String TABLE = "(" + IDENTIFIER + "(?:\\s*\\.\\s*" + IDENTIFIER + ")?)";
+	private static final Pattern TARGET = compile("^\\s*" + TABLE + "\\s*\\(([^)]*)\\)\\s*$", DOTALL);
+	private static final Pattern INSERT = compile("^\\s*INSERT\\s+INTO\\s+" + TABLE + "\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(([^)]*)\\)\\s*;?\\s*$", CASE_INSENSITIVE | DOTALL);
+	private static final Pattern PARAMETER = compile("^\\$([0-9]+)$");
+
+	public static Optional<BulkInsert> from(String normalizedSql, ParsedSQL sql, List<String> uniqueParameterNames) {
+		final Optional<String> directive = sql.getDirective(BULK_DIRECTIVE);
+		if (directive.isPresent()) {
+			final Matcher target = TARGET.matcher(directive.get());
+			if (target.matches()) {
+				final List<String> columns = split(target.group(2));
+				if (columns.size() != uniqueParameterNames.size()) {
+					throw new IllegalArgumentException("The " + BULK_DIRECTIVE + " directive names " + columns.size() + " column(s), but the query has " + uniqueParameterNames.size() + " parameter(s)!");
+				}
+				return Optional.of(new BulkInsert(target.group(1), columns, uniqueParameterNames));
+			}
+		}
+		final Optional<BulkInsert> detected = detect(normalizedSql, sql.getParameterNames());
+		if (directive.isPresent() && detected.isPresent() == false) {
+			throw new IllegalArgumentException("The " + BULK_DIRECTIVE + " directive must name a table and its columns, unless the query is a plain single-table INSERT!");
+		}
+		return detected;
+	}
+
+	public static Optional<BulkInsert> detect(String normalizedSql, List<String> parameterNames) {
+		final Matcher insert = INSERT.matcher(normalizedSql);
+		if (insert.matches() == false) {
+			return Optional.empty();
+		}
+		final List<String> columns = split(insert.group(2));
+		final List<String> values = split(insert.group(3));
+		if (columns.size() != values.size() || columns.isEmpty()) {
+			return Optional.empty();
+		}
+		final List<String> parameters = new ArrayList<>(values.size());
+		for (final String value : values) {
+			final Matcher parameter = PARAMETER.matcher(value);
+			if (parameter.matches() == false) {
+				return Optional.empty();
+			}
+			parameters.add(parameterNames.get(Integer.parseInt(parameter.group(1)) - 1));
+		}
+		return Optional.of(new BulkInsert(insert.group(1), columns, parameters));
+	}
+
+	private static List<String> split(String list) {
+		return Splitter.on(',').trimResults().omitEmptyStrings().splitToList(list);
+	}
+
+	private final String table;
+	private final List<String> columns;
+	private final List<String> parameterNames;
+
+	private BulkInsert(String table, List<String> columns, List<String> parameterNames) {
+		this.table = table;
+		this.columns = columns;
+		this.parameterNames = parameterNames;
+	}
+
+	public List<String> getParameterNames() {
+		return parameterNames;
+	}
+
+	public String getMultiRowInsertSql() {
+		return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+	}
+
+	public String getCopySql() {
+		return "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT BINARY)";
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.github.ryanholdren.typesafesql;
+
+import com.google.common.base.Splitter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static java.util.regex.Pattern.compile;
+
+class CacheSettings implements Constants {
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+	private static final String MAXIMUM_SIZE = "maxSize";
+	private static final String TIME_TO_LIVE = "ttl";
+	private static final Pattern DURATION = compile("^([0-9]+)\\s*(ms|s|m|h)?$");
+
+	public static CacheSettings from(String directive) {
+		int maximumSize = DEFAULT_MAXIMUM_SIZE;
+		long timeToLiveMillis = 0;
+		final Map<String, String> settings;
+		try {
+			settings = Splitter.on(',').trimResults().omitEmptyStrings().withKeyValueSeparator(Splitter.on('=').trimResults()).split(directive);
+		} catch (IllegalArgumentException exception) {
+			throw new IllegalArgumentException("The " + CACHE_DIRECTIVE + " directive must be a list of settings like 'maxSize=10000, ttl=30s', but was '" + directive + "'!", exception);
+		}
+		for (final Map.Entry<String, String> setting : settings.entrySet()) {
+			switch (setting.getKey()) {
+				case MAXIMUM_SIZE:
+					try {
+						maximumSize = Integer.parseInt(setting.getValue());
+					} catch (NumberFormatException exception) {
+						throw new IllegalArgumentException("The " + MAXIMUM_SIZE + " of the " + CACHE_DIRECTIVE + " directive must be a number, but was '" + setting.getValue() + "'!", exception);
+					}
+					if (maximumSize <= 0) {
+						throw new IllegalArgumentException("The " + MAXIMUM_SIZE + " of the " + CACHE_DIRECTIVE + " directive must be positive, but was " + maximumSize + "!");
+					}
+					break;
+				case TIME_TO_LIVE:
+					timeToLiveMillis = getMillisOf(setting.getValue());
+					break;
+				default:
+					throw new IllegalArgumentException("The " + CACHE_DIRECTIVE + " directive has an unknown setting '" + setting.getKey() + "'!");
+			}
+		}
+		return new CacheSettings(maximumSize, timeToLiveMillis);
+	}
+
+	private static long getMillisOf(String duration) {
+		final Matcher matcher = DURATION.matcher(duration);
+		if (matcher.matches() == false) {
+			throw new IllegalArgumentException("The " + TIME_TO_LIVE + " of the " + CACHE_DIRECTIVE + " directive must be a duration like '30s', but was '" + duration + "'!");
+		}
+		final long amount = Long.parseLong(matcher.group(1));
+		final String unit = matcher.group(2);
+		if (unit == null) {
+			return TimeUnit.SECONDS.toMillis(amount);
+		}
+		switch (unit) {
+			case "ms":
+				return amount;
+			case "m":
+				return TimeUnit.MINUTES.toMillis(amount);
+			case "h":
+				return TimeUnit.HOURS.toMillis(amount);
+			default:
+				return TimeUnit.SECONDS.toMillis(amount);
+		}
+	}
+
+	private final int maximumSize;
+	private final long timeToLiveMillis;
+
+	private CacheSettings(int maximumSize, long timeToLiveMillis) {
+		this.maximumSize = maximumSize;
+		this.timeToLiveMillis = timeToLiveMillis;
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public long getTimeToLiveMillis() {
+		return timeToLiveMillis;
+	}
+
+}
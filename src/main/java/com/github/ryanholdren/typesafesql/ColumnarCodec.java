@@ -0,0 +1,240 @@
+package com.github.ryanholdren.typesafesql;
+
+import static com.github.ryanholdren.typesafesql.JavaClassWriter.capitalize;
+import static com.github.ryanholdren.typesafesql.JavaClassWriter.uncapitalize;
+import java.io.IOException;
+
+class ColumnarCodec {
+
+	public static String getValueName(int index) {
+		return "value" + index;
+	}
+
+	public static String getValuesName(PostgresField column) {
+		return uncapitalize(column.getName()) + "Values";
+	}
+
+	public static String getNullsName(PostgresField column) {
+		return uncapitalize(column.getName()) + "Nulls";
+	}
+
+	public static String getDictionaryName(PostgresField column) {
+		return uncapitalize(column.getName()) + "Dictionary";
+	}
+
+	public static boolean isDictionaryEncoded(PostgresField column) {
+		switch (column.getType()) {
+			case STRING:
+			case OPTIONAL_STRING:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	public static boolean hasNullMask(PostgresField column) {
+		switch (column.getType()) {
+			case OPTIONAL_BOOLEAN:
+			case OPTIONAL_CHARACTER:
+			case OPTIONAL_DOUBLE:
+			case OPTIONAL_FLOAT:
+			case OPTIONAL_INTEGER:
+			case OPTIONAL_LONG:
+			case OPTIONAL_SHORT:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	public static String getElementTypeOf(PostgresField column) {
+		switch (column.getType()) {
+			case BOOLEAN:
+			case OPTIONAL_BOOLEAN:
+				return "boolean";
+			case CHARACTER:
+			case OPTIONAL_CHARACTER:
+				return "char";
+			case DOUBLE:
+			case OPTIONAL_DOUBLE:
+				return "double";
+			case FLOAT:
+			case OPTIONAL_FLOAT:
+				return "float";
+			case INTEGER:
+			case OPTIONAL_INTEGER:
+			case STRING:
+			case OPTIONAL_STRING:
+				return "int";
+			case LONG:
+			case OPTIONAL_LONG:
+				return "long";
+			case SHORT:
+			case OPTIONAL_SHORT:
+				return "short";
+			default:
+				final String javaType = column.getJavaType();
+				if (column.isNullable()) {
+					return javaType.substring(javaType.indexOf('<') + 1, javaType.length() - 1);
+				}
+				return javaType;
+		}
+	}
+
+	public static void writeFieldsTo(AutoIndentingWriter writer, PostgresField column) throws IOException {
+		final String elementType = getElementTypeOf(column);
+		writer.writeLine("private ", elementType, "[] ", getValuesName(column), " = ", getNewArrayOf(elementType, "INITIAL_CAPACITY"), ';');
+		if (hasNullMask(column)) {
+			writer.writeLine("private final BitSet ", getNullsName(column), " = new BitSet();");
+		}
+		if (isDictionaryEncoded(column)) {
+			writer.writeLine("private final StringDictionary ", getDictionaryName(column), " = new StringDictionary();");
+		}
+	}
+
+	public static void writeGrowthTo(AutoIndentingWriter writer, PostgresField column) throws IOException {
+		final String values = getValuesName(column);
+		writer.writeLine(values, " = Arrays.copyOf(", values, ", capacity);");
+	}
+
+	public static String getNullFlagName(String variable) {
+		return variable + "IsNull";
+	}
+
+	public static String getArgumentTypeOf(PostgresField column) {
+		return isDictionaryEncoded(column) ? "String" : getElementTypeOf(column);
+	}
+
+	public static String getParametersOf(PostgresField column, String variable) {
+		final String parameter = getArgumentTypeOf(column) + ' ' + variable;
+		if (hasNullMask(column)) {
+			return parameter + ", boolean " + getNullFlagName(variable);
+		}
+		return parameter;
+	}
+
+	public static String getArgumentsOf(PostgresField column, String variable) {
+		if (hasNullMask(column)) {
+			return variable + ", " + getNullFlagName(variable);
+		}
+		return variable;
+	}
+
+	public static String getUnwrappedArgumentsOf(PostgresField column, String value) {
+		if (hasNullMask(column)) {
+			return value + ".isPresent() ? " + value + JdbcCodec.getUnwrapperOf(column.getJavaType()) + " : " + getDefaultOf(getElementTypeOf(column)) + ", " + value + ".isPresent() == false";
+		}
+		if (column.isNullable()) {
+			return value + ".orElse(null)";
+		}
+		return value;
+	}
+
+	public static void writeNullableDecoderTo(AutoIndentingWriter writer, PostgresField column, String variable, String rawType, String raw, String value, String isNull, String decoded) throws IOException {
+		final String argumentType = getArgumentTypeOf(column);
+		if (hasNullMask(column) == false && decoded.equals(raw)) {
+			writer.writeLine("final ", argumentType, ' ', variable, " = ", value, ';');
+			return;
+		}
+		writer.writeLine("final ", rawType, ' ', raw, " = ", value, ';');
+		if (hasNullMask(column)) {
+			final String flag = getNullFlagName(variable);
+			writer.writeLine("final boolean ", flag, " = ", isNull, ';');
+			writer.writeLine("final ", argumentType, ' ', variable, " = ", flag, " ? ", getDefaultOf(argumentType), " : ", decoded, ';');
+		} else {
+			writer.writeLine("final ", argumentType, ' ', variable, " = ", isNull, " ? null : ", decoded, ';');
+		}
+	}
+
+	public static void writeAppenderTo(AutoIndentingWriter writer, PostgresField column, String value) throws IOException {
+		final String element = getValuesName(column) + "[size]";
+		if (isDictionaryEncoded(column)) {
+			writer.writeLine(element, " = ", getDictionaryName(column), ".encode(", value, ");");
+		} else if (hasNullMask(column)) {
+			writer.writeLine("if (", getNullFlagName(value), ") {");
+			writer.writeLine(getNullsName(column), ".set(size);");
+			writer.writeLine("} else {");
+			writer.writeLine(element, " = ", value, ';');
+			writer.writeLine("}");
+		} else {
+			writer.writeLine(element, " = ", value, ';');
+		}
+	}
+
+	public static void writeAccessorsTo(AutoIndentingWriter writer, PostgresField column) throws IOException {
+		final String name = capitalize(column.getName());
+		final String values = getValuesName(column);
+		final String elementType = getElementTypeOf(column);
+		writer.writeLine("public ", column.getJavaType(), " get", name, "(int row) {");
+		writer.writeLine("checkIndex(row);");
+		if (isDictionaryEncoded(column)) {
+			if (column.isNullable()) {
+				writer.writeLine("return Optional.ofNullable(", getDictionaryName(column), ".decode(", values, "[row]));");
+			} else {
+				writer.writeLine("return ", getDictionaryName(column), ".decode(", values, "[row]);");
+			}
+		} else if (hasNullMask(column)) {
+			final String wrapper = getWrapperOf(column);
+			writer.writeLine("if (", getNullsName(column), ".get(row)) {");
+			writer.writeLine("return ", wrapper, ".empty();");
+			writer.writeLine("}");
+			writer.writeLine("return ", wrapper, ".of(", values, "[row]);");
+		} else if (column.isNullable()) {
+			writer.writeLine("return Optional.ofNullable(", values, "[row]);");
+		} else {
+			writer.writeLine("return ", values, "[row];");
+		}
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		if (isDictionaryEncoded(column)) {
+			writer.writeLine("public int[] get", name, "Codes() {");
+			writer.writeLine("return Arrays.copyOf(", values, ", size);");
+			writer.writeLine("}");
+			writer.writeEmptyLine();
+			writer.writeLine("public StringDictionary get", name, "Dictionary() {");
+			writer.writeLine("return ", getDictionaryName(column), ';');
+			writer.writeLine("}");
+		} else {
+			writer.writeLine("public ", elementType, "[] get", name, "Values() {");
+			writer.writeLine("return Arrays.copyOf(", values, ", size);");
+			writer.writeLine("}");
+		}
+		writer.writeEmptyLine();
+		if (hasNullMask(column)) {
+			writer.writeLine("public BitSet get", name, "Nulls() {");
+			writer.writeLine("return (BitSet) ", getNullsName(column), ".clone();");
+			writer.writeLine("}");
+			writer.writeEmptyLine();
+		}
+	}
+
+	private static String getDefaultOf(String elementType) {
+		switch (elementType) {
+			case "boolean":
+				return "false";
+			case "char":
+				return "'\\0'";
+			default:
+				return "0";
+		}
+	}
+
+	private static String getWrapperOf(PostgresField column) {
+		final String javaType = column.getJavaType();
+		final int indexOfTypeArgument = javaType.indexOf('<');
+		return indexOfTypeArgument < 0 ? javaType : javaType.substring(0, indexOfTypeArgument);
+	}
+
+	private static String getNewArrayOf(String elementType, String length) {
+		final int indexOfTypeArgument = elementType.indexOf('<');
+		if (indexOfTypeArgument >= 0) {
+			return "(" + elementType + "[]) new " + elementType.substring(0, indexOfTypeArgument) + "<?>[" + length + ']';
+		}
+		final int indexOfBracket = elementType.indexOf('[');
+		if (indexOfBracket < 0) {
+			return "new " + elementType + '[' + length + ']';
+		}
+		return "new " + elementType.substring(0, indexOfBracket) + '[' + length + ']' + elementType.substring(indexOfBracket);
+	}
+
+}
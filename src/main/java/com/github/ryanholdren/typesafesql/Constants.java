@@ -1,8 +1,11 @@
 package com.github.ryanholdren.typesafesql;
 
-import java.util.regex.Pattern;
-import static java.util.regex.Pattern.compile;
-
 interface Constants {
-	public static final Pattern PARAMETER_PATTERN = compile("(?<=\\(|,|\\s|^):[a-z][a-zA-Z0-9]*");
+	public static final String SCHEMA_DIRECTIVE = "Schema";
+	public static final String IMPLEMENTS_DIRECTIVE = "Implements";
+	public static final String RESULT_CLASS_DIRECTIVE = "Result Class";
+	public static final String BULK_DIRECTIVE = "Bulk";
+	public static final String FETCH_SIZE_DIRECTIVE = "Fetch Size";
+	public static final String COLUMNAR_DIRECTIVE = "Columnar";
+	public static final String CACHE_DIRECTIVE = "Cache";
 }
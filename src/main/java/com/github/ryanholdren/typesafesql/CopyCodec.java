@@ -0,0 +1,106 @@
+package com.github.ryanholdren.typesafesql;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.util.Set;
+
+class CopyCodec {
+
+	private static final Set<String> TEXTUAL_TYPES = ImmutableSet.of("text", "varchar", "name", "bpchar", "json", "xml");
+
+	public static boolean canEncode(PostgresField field) {
+		switch (field.getType()) {
+			case STRING:
+			case OPTIONAL_STRING:
+				return TEXTUAL_TYPES.contains(field.getPostgresTypeName());
+			case STRING_ARRAY:
+			case OPTIONAL_STRING_ARRAY:
+				return "_text".equals(field.getPostgresTypeName()) || "_varchar".equals(field.getPostgresTypeName());
+			default:
+				return ArrayCodec.isList(field.getType()) == false;
+		}
+	}
+
+	public static void writeEncoderTo(AutoIndentingWriter writer, PostgresField field, String value, int index) throws IOException {
+		final String method = getMethodOf(field);
+		if (field.isNullable()) {
+			final String variable = "value" + index;
+			writer.writeLine("final ", field.getJavaType(), ' ', variable, " = ", value, ';');
+			writer.writeLine("if (", variable, ".isPresent()) {");
+			writer.writeLine("copy.", method, '(', variable, JdbcCodec.getUnwrapperOf(field.getJavaType()), ");");
+			writer.writeLine("} else {");
+			writer.writeLine("copy.writeNull();");
+			writer.writeLine("}");
+		} else {
+			writer.writeLine("copy.", method, '(', value, ");");
+		}
+	}
+
+	private static String getMethodOf(PostgresField field) {
+		switch (field.getType()) {
+			case BIG_DECMIAL:
+			case OPTIONAL_BIG_DECMIAL:
+				return "writeNumeric";
+			case BOOLEAN:
+			case OPTIONAL_BOOLEAN:
+				return "writeBoolean";
+			case BYTE_ARRAY:
+			case OPTIONAL_BYTE_ARRAY:
+				return "writeBytes";
+			case CHARACTER:
+			case OPTIONAL_CHARACTER:
+				return "writeChar";
+			case DOUBLE:
+			case OPTIONAL_DOUBLE:
+				return "writeDouble";
+			case DOUBLE_ARRAY:
+			case OPTIONAL_DOUBLE_ARRAY:
+				return "writeDoubleArray";
+			case FLOAT:
+			case OPTIONAL_FLOAT:
+				return "writeFloat";
+			case INTEGER:
+			case OPTIONAL_INTEGER:
+				return "writeInt";
+			case INTEGER_ARRAY:
+			case OPTIONAL_INTEGER_ARRAY:
+				return "writeIntArray";
+			case LOCAL_DATE:
+			case OPTIONAL_LOCAL_DATE:
+				return "writeDate";
+			case LOCAL_DATE_TIME:
+			case OPTIONAL_LOCAL_DATE_TIME:
+				return "writeTimestamp";
+			case LOCAL_TIME:
+			case OPTIONAL_LOCAL_TIME:
+				return "writeTime";
+			case LONG:
+			case OPTIONAL_LONG:
+				return "writeLong";
+			case LONG_ARRAY:
+			case OPTIONAL_LONG_ARRAY:
+				return "writeLongArray";
+			case OFFSET_DATE_TIME:
+			case OPTIONAL_OFFSET_DATE_TIME:
+				return "writeTimestampWithTimeZone";
+			case OFFSET_TIME:
+			case OPTIONAL_OFFSET_TIME:
+				return "writeTimeWithTimeZone";
+			case SHORT:
+			case OPTIONAL_SHORT:
+				return "writeShort";
+			case STRING_ARRAY:
+			case OPTIONAL_STRING_ARRAY:
+				return "_varchar".equals(field.getPostgresTypeName()) ? "writeVarcharArray" : "writeTextArray";
+			case UUID:
+			case OPTIONAL_UUID:
+				return "writeUUID";
+			case UUID_ARRAY:
+			case OPTIONAL_UUID_ARRAY:
+				return "writeUUIDArray";
+			default:
+				return "writeString";
+		}
+	}
+
+}
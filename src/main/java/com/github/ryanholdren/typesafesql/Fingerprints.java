@@ -0,0 +1,129 @@
+package com.github.ryanholdren.typesafesql;
+
+import static com.github.ryanholdren.typesafesql.JavaClassWriter.LINE_BREAK;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hasher;
+import java.io.File;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+class Fingerprints {
+
+	private static final char SEPARATOR = ' ';
+	private static final String OUTPUT = "output";
+	private static final String USES = "uses";
+	private static final char SUPPORT_CLASS_SEPARATOR = ',';
+
+	public static Fingerprints loadFrom(File file) throws IOException {
+		final Fingerprints fingerprints = emptyAt(file);
+		if (file.isFile()) {
+			for (final String line : Splitter.on(LINE_BREAK).omitEmptyStrings().split(new String(Files.readAllBytes(file.toPath()), UTF_8))) {
+				final int indexOfSeparator = line.indexOf(SEPARATOR);
+				if (indexOfSeparator <= 0) {
+					continue;
+				}
+				final String first = line.substring(0, indexOfSeparator);
+				final String rest = line.substring(indexOfSeparator + 1);
+				if (OUTPUT.equals(first)) {
+					fingerprints.outputs.add(rest);
+				} else if (USES.equals(first)) {
+					final int indexOfPath = rest.indexOf(SEPARATOR);
+					if (indexOfPath >= 0) {
+						fingerprints.supportClassesByPath.put(rest.substring(indexOfPath + 1), new TreeSet<>(Splitter.on(SUPPORT_CLASS_SEPARATOR).omitEmptyStrings().splitToList(rest.substring(0, indexOfPath))));
+					}
+				} else {
+					fingerprints.fingerprintsByPath.put(rest, first);
+				}
+			}
+		}
+		return fingerprints;
+	}
+
+	public static Fingerprints emptyAt(File file) {
+		return new Fingerprints(file);
+	}
+
+	public static void putAll(Hasher hasher, Map<String, String> map) {
+		if (map == null) {
+			hasher.putInt(-1);
+			return;
+		}
+		hasher.putInt(map.size());
+		for (final Map.Entry<String, String> entry : new TreeMap<>(map).entrySet()) {
+			hasher.putString(entry.getKey(), UTF_8);
+			hasher.putString(String.valueOf(entry.getValue()), UTF_8);
+		}
+	}
+
+	private final File file;
+	private final TreeMap<String, String> fingerprintsByPath = new TreeMap<>();
+	private final TreeMap<String, Set<String>> supportClassesByPath = new TreeMap<>();
+	private final TreeSet<String> outputs = new TreeSet<>();
+
+	private Fingerprints(File file) {
+		this.file = file;
+	}
+
+	public synchronized boolean matches(String path, String fingerprint) {
+		return fingerprint.equals(fingerprintsByPath.get(path)) && supportClassesByPath.containsKey(path);
+	}
+
+	public synchronized void put(String path, String fingerprint, Set<String> supportClasses) {
+		fingerprintsByPath.put(path, fingerprint);
+		supportClassesByPath.put(path, new TreeSet<>(supportClasses));
+	}
+
+	public synchronized void remove(String path) {
+		fingerprintsByPath.remove(path);
+		supportClassesByPath.remove(path);
+	}
+
+	public synchronized Set<String> getPaths() {
+		return new TreeMap<>(fingerprintsByPath).keySet();
+	}
+
+	public synchronized Set<String> getSupportClasses() {
+		final TreeSet<String> supportClasses = new TreeSet<>();
+		for (final String path : fingerprintsByPath.keySet()) {
+			final Set<String> supportClassesOfPath = supportClassesByPath.get(path);
+			if (supportClassesOfPath != null) {
+				supportClasses.addAll(supportClassesOfPath);
+			}
+		}
+		return supportClasses;
+	}
+
+	public synchronized Set<String> getOutputs() {
+		return new TreeSet<>(outputs);
+	}
+
+	public synchronized void setOutputs(Collection<String> outputs) {
+		this.outputs.clear();
+		this.outputs.addAll(outputs);
+	}
+
+	public synchronized void save() throws IOException {
+		final List<String> lines = new ArrayList<>(fingerprintsByPath.size() + supportClassesByPath.size() + outputs.size());
+		for (final Map.Entry<String, String> entry : fingerprintsByPath.entrySet()) {
+			lines.add(entry.getValue() + SEPARATOR + entry.getKey());
+		}
+		for (final Map.Entry<String, Set<String>> entry : supportClassesByPath.entrySet()) {
+			lines.add(USES + SEPARATOR + Joiner.on(SUPPORT_CLASS_SEPARATOR).join(entry.getValue()) + SEPARATOR + entry.getKey());
+		}
+		for (final String output : outputs) {
+			lines.add(OUTPUT + SEPARATOR + output);
+		}
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), lines, UTF_8);
+	}
+
+}
@@ -1,17 +1,26 @@
 package com.github.ryanholdren.typesafesql;
 
+import com.github.ryanholdren.typesafesql.ParsedSQL.Segment;
 import com.github.ryanholdren.typesafesql.ResultColumns.Many;
 import com.github.ryanholdren.typesafesql.ResultColumns.None;
 import com.github.ryanholdren.typesafesql.ResultColumns.One;
 import com.github.ryanholdren.typesafesql.ResultColumns.Visitor;
-import static com.google.common.base.CharMatcher.whitespace;
-import com.google.common.base.Splitter;
+import static com.google.common.hash.Hashing.sha256;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
+import java.util.function.IntFunction;
 import java.util.regex.Pattern;
 import static java.util.regex.Pattern.compile;
 import org.immutables.value.Value.Immutable;
@@ -21,18 +30,8 @@ import org.immutables.value.Value.Style;
 @Style(stagedBuilder = true)
 public interface JavaClassWriter extends Constants {
 
-	public static final Pattern PRECEDING_WHITESPACE = Pattern.compile("^\\s*");
-
 	public static String escape(String line) {
-		return line.replace("\\", "\\\\").replace("\"", "\\\"");
-	}
-
-	public static String findPrecedingWhitespaceIn(String line) {
-		final Matcher matcher = PRECEDING_WHITESPACE.matcher(line);
-		if (matcher.find()) {
-			return matcher.group();
-		}
-		throw new IllegalStateException("Should always match something, even if it's an empty string!");
+		return line.replace("\\", "\\\\").replace("\"", "\\\"").replace("\r", "\\r").replace("\n", "\\n").replace("\t", "\\t");
 	}
 
 	public static String capitalize(String word) {
@@ -45,12 +44,17 @@ public interface JavaClassWriter extends Constants {
 
 	String getNamespace();
 	String getClassName();
-	String getSql();
+	ParsedSQL getSql();
 	Parameters getParameters();
 	ResultColumns getResultColumns();
+	String getSupportPackage();
+	Set<Backend> getBackends();
+	OptionalInt getFetchSize();
 
 	default void writeTo(BufferedWriter writer) throws IOException {
-		writeTo(new AutoIndentingWriter(writer));
+		final AutoIndentingWriter buffer = new AutoIndentingWriter();
+		writeTo(buffer);
+		writer.append(buffer.toString());
 	}
 
 	default void writeTo(AutoIndentingWriter writer) throws IOException {
@@ -58,9 +62,19 @@ public interface JavaClassWriter extends Constants {
 		writeImportsTo(writer);
 		writeStartOfClassTo(writer);
 		writeSQLConstantTo(writer);
+		writeStatementNameTo(writer);
 		writeParametersTo(writer);
 		writeResultTo(writer);
-		writePgAsyncMethodTo(writer);
+		writeCacheTo(writer);
+		if (getBackends().contains(Backend.PG_ASYNC)) {
+			writePgAsyncMethodTo(writer);
+		}
+		if (getBackends().contains(Backend.JDBC)) {
+			writeJdbcMethodTo(writer);
+		}
+		if (getBackends().contains(Backend.R2DBC)) {
+			writeR2dbcMethodTo(writer);
+		}
 		writeEndOfClassTo(writer);
 	}
 
@@ -70,27 +84,132 @@ public interface JavaClassWriter extends Constants {
 	}
 
 	default void writeImportsTo(AutoIndentingWriter writer) throws IOException {
+		for (String classNameOfImport : getImports()) {
+			writer.writeLine("import ", classNameOfImport, ';');
+		}
+		writer.writeEmptyLine();
+	}
+
+	default Set<String> getSupportClasses() {
+		final String prefix = getSupportPackage() + '.';
+		final TreeSet<String> supportClasses = new TreeSet<>();
+		for (final String classNameOfImport : getImports()) {
+			if (classNameOfImport.startsWith(prefix) && classNameOfImport.indexOf('.', prefix.length()) < 0) {
+				supportClasses.add(classNameOfImport.substring(prefix.length()));
+			}
+		}
+		return supportClasses;
+	}
+
+	default Set<String> getImports() {
 		final TreeSet<String> imports = new TreeSet<>();
 		for (final PostgresField parameter : getParameters()) {
 			imports.addAll(parameter.getImports());
+			if (parameter.getType().isArray()) {
+				imports.add(getSupportPackage() + '.' + ArrayCodec.SUPPORT_CLASS);
+			}
 		}
 		for (final PostgresField resultColumn : getResultColumns()) {
 			imports.addAll(resultColumn.getImports());
+			if (resultColumn.getType().isArray()) {
+				imports.add(getSupportPackage() + '.' + ArrayCodec.SUPPORT_CLASS);
+			}
 		}
-		imports.add("static java.lang.String.join");
-		imports.add("static java.lang.System.lineSeparator");
-		imports.add("com.github.pgasync.QueryExecutor");
 		imports.add("org.immutables.value.Value.Immutable");
 		imports.add("org.immutables.value.Value.Style");
 		imports.add("org.immutables.value.Value.Enclosing");
-		imports.add("java.util.function.IntFunction");
-		imports.add("static rx.RxReactiveStreams.toPublisher");
-		imports.add("reactor.core.publisher.Flux");
-		imports.add("reactor.core.publisher.Mono");
-		for (String classNameOfImport : imports) {
-			writer.writeLine("import ", classNameOfImport, ';');
+		imports.add(getSupportPackage() + ".QueryDescriptor");
+		if (isCached()) {
+			imports.add(getSupportPackage() + ".QueryCache");
+			imports.add("java.util.List");
+			if (getBackends().contains(Backend.JDBC)) {
+				imports.add("java.util.ArrayList");
+			}
 		}
-		writer.writeEmptyLine();
+		if (hasWrittenTables()) {
+			imports.add(getSupportPackage() + ".QueryCache");
+		}
+		if (isColumnar()) {
+			imports.add("java.util.Arrays");
+			for (final PostgresField column : getResultColumns()) {
+				if (ColumnarCodec.hasNullMask(column)) {
+					imports.add("java.util.BitSet");
+				}
+				if (ColumnarCodec.isDictionaryEncoded(column)) {
+					imports.add(getSupportPackage() + ".StringDictionary");
+				}
+			}
+		}
+		if (getBackends().contains(Backend.PG_ASYNC)) {
+			imports.add("com.github.pgasync.QueryExecutor");
+			imports.add(getSupportPackage() + ".QueryMetrics");
+			if (getResultColumns().iterator().hasNext()) {
+				imports.add("com.github.pgasync.Row");
+			}
+			imports.add("static rx.RxReactiveStreams.toPublisher");
+			imports.add("reactor.core.publisher.Flux");
+			imports.add("reactor.core.publisher.Mono");
+			if (getMultiRowInsert().isPresent() || isStreamed()) {
+				imports.add("com.github.pgasync.Transaction");
+			}
+			if (isStreamed()) {
+				imports.add("java.util.concurrent.atomic.AtomicLong");
+			}
+			if (getMultiRowInsert().isPresent()) {
+				imports.add("java.util.List");
+				imports.add("java.util.StringJoiner");
+				imports.add("org.reactivestreams.Publisher");
+			}
+		}
+		if (getBackends().contains(Backend.JDBC)) {
+			imports.add("java.sql.Connection");
+			imports.add("java.sql.PreparedStatement");
+			imports.add("java.sql.ResultSet");
+			imports.add("java.sql.SQLException");
+			imports.add("javax.sql.DataSource");
+			imports.add("org.postgresql.PGStatement");
+			if (getBulkInsert().isPresent()) {
+				imports.add(getSupportPackage() + ".BinaryCopyWriter");
+			}
+			getResultColumns().accept(new Visitor<RuntimeException>() {
+
+				@Override
+				public void visit(None columns) {
+					return;
+				}
+
+				@Override
+				public void visit(One column) {
+					final String consumer = JdbcCodec.getConsumerOf(column.getColumn());
+					final int indexOfTypeArgument = consumer.indexOf('<');
+					imports.add("java.util.function." + (indexOfTypeArgument < 0 ? consumer : consumer.substring(0, indexOfTypeArgument)));
+				}
+
+				@Override
+				public void visit(Many columns) {
+					imports.add("java.util.function.Consumer");
+				}
+
+			});
+		}
+		if (getBackends().contains(Backend.R2DBC)) {
+			imports.add("io.r2dbc.spi.ConnectionFactory");
+			imports.add("io.r2dbc.spi.Result");
+			imports.add("io.r2dbc.spi.Statement");
+			imports.add(getSupportPackage() + ".QueryMetrics");
+			imports.add("reactor.core.publisher.Flux");
+			imports.add("reactor.core.publisher.Mono");
+			if (getR2dbcConnection().indexOf('.') < 0) {
+				imports.add("io.r2dbc.spi.Connection");
+			}
+			if (getResultColumns().iterator().hasNext() && getR2dbcRow().indexOf('.') < 0) {
+				imports.add("io.r2dbc.spi.Row");
+			}
+			if (isBatchable()) {
+				imports.add("java.util.Iterator");
+			}
+		}
+		return imports;
 	}
 
 	default void writeStartOfClassTo(AutoIndentingWriter writer) throws IOException {
@@ -99,71 +218,52 @@ public interface JavaClassWriter extends Constants {
 	}
 
 	default void writeSQLConstantTo(AutoIndentingWriter writer) throws IOException {
-		final Iterator<String> iterator = getLinesOfSQL().iterator();
-		if (iterator.hasNext()) {
-			if (hasParameters()) {
-				writer.writeLine("public static String getSql(IntFunction<String> variable) {");
-				writer.writeLine("return join (");
-			} else {
-				writer.writeLine("public static final String SQL = join(");
-			}
-			writer.write("lineSeparator()");
-			int counter = 0;
-			while (true) {
-				String line = iterator.next();
-				if (line == null) {
-					break;
-				}
-				if (line.startsWith("--") || isEntirelyWhitespace(line)) {
-					if (iterator.hasNext()) {
-						continue;
-					} else {
-						break;
-					}
-				}
-				writer.writeLine(',');
-				final String precedingWhitespace = findPrecedingWhitespaceIn(line);
-				writer.write(precedingWhitespace);
-				writer.write('"');
-				final String trimmed = line.trim();
-				final Matcher parameterMatcher = PARAMETER_PATTERN.matcher(trimmed);
-				if (parameterMatcher.find()) {
-					int end = 0;
-					do {
-						final int start = parameterMatcher.start();
-						final String before = trimmed.substring(end, start);
-						writer.write(escape(before));
-						writer.write('"', " + variable.apply(", counter ++, ") + ", '"');
-						end = parameterMatcher.end();
-					} while (parameterMatcher.find());
-					writer.write(escape(trimmed.substring(end, trimmed.length())));
-				} else {
-					writer.write(escape(trimmed));
-				}
-				writer.write('"');
-				if (iterator.hasNext()) {
-					continue;
-				} else {
-					writer.writeLine();
-					break;
-				}
-			}
-			writer.writeLine(");");
-			if (hasParameters()) {
-				writer.writeLine("}");
-			}
-			writer.writeEmptyLine();
-		}
+		writer.writeLine("public static final String SQL = \"", escape(getNormalizedSql()), "\";");
+		writer.writeEmptyLine();
 	}
 
 	public static final Pattern LINE_BREAK = compile("\\r?\\n");
 
-	default Iterable<String> getLinesOfSQL() {
-		return Splitter.on(LINE_BREAK).split(getSql());
+	public static final String STATEMENT_NAME_PREFIX = "typesafesql_";
+
+	default void writeStatementNameTo(AutoIndentingWriter writer) throws IOException {
+		writer.writeLine("public static final String STATEMENT_NAME = \"", getStatementName(), "\";");
+		writer.writeLine("public static final QueryDescriptor DESCRIPTOR = QueryDescriptor.of(\"", getNamespace(), '.', getClassName(), "\", STATEMENT_NAME, \"", getSqlHash(), "\", QueryDescriptor.Shape.", getShape(), ");");
+		writer.writeEmptyLine();
+	}
+
+	default String getStatementName() {
+		return STATEMENT_NAME_PREFIX + getSqlHash();
+	}
+
+	default String getSqlHash() {
+		return sha256().hashString(getNormalizedSql(), UTF_8).toString().substring(0, 16);
+	}
+
+	default String getShape() {
+		if (getResultColumns() == None.NONE) {
+			return "NONE";
+		}
+		if (getResultColumns() instanceof One) {
+			return "ONE";
+		}
+		return "MANY";
+	}
+
+	default String getNormalizedSql() {
+		return getWireSql(index -> "$" + (index + 1));
 	}
 
-	default boolean isEntirelyWhitespace(String string) {
-		return whitespace().matchesAllOf(string);
+	default String getWireSql(IntFunction<String> variable) {
+		final StringBuilder sql = new StringBuilder();
+		for (final Segment segment : getSql().getSegments()) {
+			if (segment.isParameter()) {
+				sql.append(variable.apply(segment.getParameterIndex()));
+			} else {
+				sql.append(segment.getText());
+			}
+		}
+		return sql.toString();
 	}
 
 	default void writeParametersTo(AutoIndentingWriter writer) throws IOException {
@@ -186,41 +286,43 @@ public interface JavaClassWriter extends Constants {
 	}
 
 	default void writeParametersToArrayTo(AutoIndentingWriter writer) throws IOException {
+		final Map<String, PostgresField> parameters = new HashMap<>();
+		for (final PostgresField parameter : getParameters()) {
+			parameters.putIfAbsent(parameter.getName(), parameter);
+		}
 		writer.writeLine("default Object[] toArray() {");
+		final Set<String> repeated = new HashSet<>();
+		final Set<String> seen = new HashSet<>();
+		for (final String name : getParameterNames()) {
+			if (seen.add(name) == false && repeated.add(name)) {
+				writer.writeLine("final Object ", name, " = ", PgAsyncCodec.getEncoderOf(parameters.get(name), "get" + capitalize(name) + "()"), ';');
+			}
+		}
 		writer.writeLine("return new Object[] {");
 		for (final String name : getParameterNames()) {
-			writer.writeLine("get" + capitalize(name) + "(),");
+			if (repeated.contains(name)) {
+				writer.writeLine(name, ',');
+			} else {
+				writer.writeLine(PgAsyncCodec.getEncoderOf(parameters.get(name), "get" + capitalize(name) + "()"), ',');
+			}
 		}
 		writer.writeLine("};");
 		writer.writeLine("}");
 	}
 
 	default boolean hasParameters() {
-		return getParameterNames().iterator().hasNext();
+		return getSql().hasParameters();
 	}
 
 	default String getFirstParameterName() {
-		for (final String parameterName : getParameterNames()) {
-			return parameterName;
+		if (hasParameters()) {
+			return getParameterNames().get(0);
 		}
 		throw new UnsupportedOperationException("This SQL file has no parameters!");
 	}
 
-	default Iterable<String> getParameterNames() {
-		final Matcher matcher = PARAMETER_PATTERN.matcher(getSql());
-		return () -> new Iterator<String>() {
-
-			@Override
-			public boolean hasNext() {
-				return matcher.find();
-			}
-
-			@Override
-			public String next() {
-				return matcher.group().substring(1);
-			}
-
-		};
+	default List<String> getParameterNames() {
+		return getSql().getParameterNames();
 	}
 
 	default void writeResultTo(AutoIndentingWriter writer) throws IOException {
@@ -239,7 +341,11 @@ public interface JavaClassWriter extends Constants {
 			@Override
 			public void visit(Many columns) throws IOException {
 				writer.writeLine("@Immutable");
-				writer.writeLine("@Style(stagedBuilder = true)");
+				if (canBeConstructedDirectly(columns)) {
+					writer.writeLine("@Style(stagedBuilder = true, allParameters = true)");
+				} else {
+					writer.writeLine("@Style(stagedBuilder = true)");
+				}
 				writer.write("public interface ", getResultClassName());
 				final Iterator<String> interfaces = getResultInterfaces();
 				if (interfaces.hasNext()) {
@@ -259,22 +365,174 @@ public interface JavaClassWriter extends Constants {
 				}
 				writer.writeLine("}");
 				writer.writeEmptyLine();
+				if (isColumnar()) {
+					writeColumnsTo(writer, columns);
+				}
 			}
 
 		});
 	}
 
-	public static final String INTERFACE_PREFIX = "-- Implements: ";
+	default boolean isCached() {
+		if (getSql().getDirective(CACHE_DIRECTIVE).isPresent() == false) {
+			return false;
+		}
+		if (getResultColumns() == None.NONE) {
+			throw new IllegalArgumentException("The " + CACHE_DIRECTIVE + " directive can only be used on queries that return something!");
+		}
+		if (hasWrittenTables()) {
+			throw new IllegalArgumentException("The " + CACHE_DIRECTIVE + " directive can only be used on queries that do not write to any table!");
+		}
+		return true;
+	}
+
+	default CacheSettings getCacheSettings() {
+		return CacheSettings.from(getSql().getDirective(CACHE_DIRECTIVE).get());
+	}
 
-	default Iterator<String> getResultInterfaces() {
-		final ArrayList<String> interfaces = new ArrayList<>();
-		for (final String line : getLinesOfSQL()) {
-			if (line.startsWith(INTERFACE_PREFIX)) {
-				final String interfaze = line.substring(INTERFACE_PREFIX.length());
-				interfaces.add(interfaze);
+	default TableReferences getTableReferences() {
+		return TableReferences.from(getNormalizedSql());
+	}
+
+	default boolean hasWrittenTables() {
+		return getTableReferences().getWrittenTables().isEmpty() == false;
+	}
+
+	default String getCacheKey() {
+		return hasParameters() ? "QueryCache.keyOf(parameters.toArray())" : "QueryCache.keyOf()";
+	}
+
+	default String getInvalidation() {
+		return hasWrittenTables() ? "Mono.fromRunnable(" + getClassName() + "::invalidateCaches)" : "";
+	}
+
+	default String getInvalidationOfRows() {
+		if (hasWrittenTables()) {
+			final String invalidation = getClassName() + "::invalidateCaches";
+			return ".doOnComplete(" + invalidation + ").doOnCancel(" + invalidation + ')';
+		}
+		return "";
+	}
+
+	default void writeCacheTo(AutoIndentingWriter writer) throws IOException {
+		if (isCached()) {
+			final CacheSettings settings = getCacheSettings();
+			final String result = getResultColumns() instanceof One ? ((One) getResultColumns()).getColumn().getBoxedJavaType() : getResultClassName();
+			final Set<String> tables = getTableReferences().getReadTables();
+			writer.writeLine("public static final QueryCache<QueryCache.Key, List<", result, ">> CACHE = QueryCache.create(", settings.getMaximumSize(), ", ", settings.getTimeToLiveMillis(), 'L', tables.isEmpty() ? "" : ", " + getTableNameList(tables), ");");
+			writer.writeEmptyLine();
+		}
+		if (hasWrittenTables()) {
+			writer.writeLine("public static void invalidateCaches() {");
+			writer.writeLine("QueryCache.invalidateTables(", getTableNameList(getTableReferences().getWrittenTables()), ");");
+			writer.writeLine("}");
+			writer.writeEmptyLine();
+		}
+	}
+
+	public static String getTableNameList(Set<String> tables) {
+		final StringBuilder list = new StringBuilder();
+		for (final String table : tables) {
+			if (list.length() > 0) {
+				list.append(", ");
+			}
+			list.append('"').append(escape(table)).append('"');
+		}
+		return list.toString();
+	}
+
+	default boolean isColumnar() {
+		if (getSql().getDirective(COLUMNAR_DIRECTIVE).isPresent() == false) {
+			return false;
+		}
+		if (getResultColumns() instanceof Many) {
+			return true;
+		}
+		throw new IllegalArgumentException("The " + COLUMNAR_DIRECTIVE + " directive can only be used on queries that return more than one column!");
+	}
+
+	default String getColumnsClassName() {
+		return getSql().getDirective(COLUMNAR_DIRECTIVE).map(String::trim).filter(name -> name.isEmpty() == false).orElseGet(() -> getClassName() + "Columns");
+	}
+
+	default void writeColumnsTo(AutoIndentingWriter writer, Many columns) throws IOException {
+		final List<PostgresField> list = new ArrayList<>();
+		for (final PostgresField column : columns) {
+			list.add(column);
+		}
+		writer.writeLine("public static final class ", getColumnsClassName(), " {");
+		writer.writeEmptyLine();
+		writer.writeLine("private static final int INITIAL_CAPACITY = 16;");
+		writer.writeEmptyLine();
+		writer.writeLine("private int size;");
+		for (final PostgresField column : list) {
+			ColumnarCodec.writeFieldsTo(writer, column);
+		}
+		writer.writeEmptyLine();
+		writer.writeLine("public int size() {");
+		writer.writeLine("return size;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.write("public void add(");
+		for (int index = 0; index < list.size(); index ++) {
+			if (index > 0) {
+				writer.write(", ");
+			}
+			writer.write(list.get(index).getJavaType(), ' ', ColumnarCodec.getValueName(index));
+		}
+		writer.writeLine(") {");
+		writer.write("append(");
+		for (int index = 0; index < list.size(); index ++) {
+			if (index > 0) {
+				writer.write(", ");
 			}
+			writer.write(ColumnarCodec.getUnwrappedArgumentsOf(list.get(index), ColumnarCodec.getValueName(index)));
 		}
-		return interfaces.iterator();
+		writer.writeLine(");");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.write("void append(");
+		for (int index = 0; index < list.size(); index ++) {
+			if (index > 0) {
+				writer.write(", ");
+			}
+			writer.write(ColumnarCodec.getParametersOf(list.get(index), ColumnarCodec.getValueName(index)));
+		}
+		writer.writeLine(") {");
+		writer.writeLine("if (size == ", ColumnarCodec.getValuesName(list.get(0)), ".length) {");
+		writer.writeLine("grow(size * 2);");
+		writer.writeLine("}");
+		for (int index = 0; index < list.size(); index ++) {
+			ColumnarCodec.writeAppenderTo(writer, list.get(index), ColumnarCodec.getValueName(index));
+		}
+		writer.writeLine("size ++;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("private void grow(int capacity) {");
+		for (final PostgresField column : list) {
+			ColumnarCodec.writeGrowthTo(writer, column);
+		}
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("private void checkIndex(int row) {");
+		writer.writeLine("if (row < 0 || row >= size) {");
+		writer.writeLine("throw new IndexOutOfBoundsException(\"There is no row \" + row + \" in these \" + size + \" row(s)!\");");
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		for (final PostgresField column : list) {
+			ColumnarCodec.writeAccessorsTo(writer, column);
+		}
+		writer.writeLine("public ", getResultClassName(), " getRow(int row) {");
+		writeConstructionOfResultTo(writer, columns, index -> "get" + capitalize(list.get(index).getName()) + "(row)");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default Iterator<String> getResultInterfaces() {
+		return getSql().getDirectives(IMPLEMENTS_DIRECTIVE).iterator();
 	}
 
 	default void writePgAsyncMethodTo(AutoIndentingWriter writer) throws IOException {
@@ -284,8 +542,6 @@ public interface JavaClassWriter extends Constants {
 		writer.writeLine("QueryExecutor getQueryExecutor();");
 		writer.writeEmptyLine();
 		if (hasParameters()) {
-			writer.writeLine("public static final String SQL = getSql(index -> \"$\" + index);");
-			writer.writeEmptyLine();
 			writer.writeLine("@Immutable");
 			writer.writeLine("@Style(stagedBuilder = true, init = \"with*\")");
 			writer.writeLine("public interface BoundPgAsync", getClassName(), "Parameters extends ", getClassName(), "Parameters {");
@@ -326,64 +582,858 @@ public interface JavaClassWriter extends Constants {
 				public void visit(None columns) throws IOException {
 					if (hasParameters()) {
 						writer.writeLine("default Mono<Void> ", methodName, "(", getClassName(), "Parameters parameters) {");
-						writer.writeLine("return Mono.from(toPublisher(getQueryExecutor().querySet(SQL, parameters.toArray()))).then();");
+						writer.writeLine("return QueryMetrics.measureUpdate(DESCRIPTOR, Mono.from(toPublisher(getQueryExecutor().querySet(SQL, parameters.toArray()))).map(result -> (long) result.updatedRows())).then(", getInvalidation(), ");");
 						writer.writeLine("}");
+						final Optional<BulkInsert> multiRowInsert = getMultiRowInsert();
+						if (multiRowInsert.isPresent()) {
+							writer.writeEmptyLine();
+							writePgAsyncBatchMethodsTo(writer, methodName, multiRowInsert.get());
+						}
 					} else {
 						writer.writeLine("default Mono<Void> ", methodName, "() {");
-						writer.writeLine("return Mono.from(toPublisher(getQueryExecutor().querySet(SQL))).then();");
+						writer.writeLine("return QueryMetrics.measureUpdate(DESCRIPTOR, Mono.from(toPublisher(getQueryExecutor().querySet(SQL))).map(result -> (long) result.updatedRows())).then(", getInvalidation(), ");");
 						writer.writeLine("}");
 					}
 				}
 
 				@Override
 				public void visit(One column) throws IOException {
-					if (hasParameters()) {
-						writer.writeLine("default Flux<", column.getColumn().getBoxedJavaType(), "> ", methodName, '(', getClassName(), "Parameters parameters", ") {");
-						writer.writeLine("return Flux.from(toPublisher(getQueryExecutor().queryRows(SQL, parameters.toArray()))).map(row -> {");
-						writer.writeLine("return null;");
-						writer.writeLine("});");
-						writer.writeLine("}");
-					} else {
-						writer.writeLine("default Flux<", column.getColumn().getBoxedJavaType(), "> ", methodName, "() {");
-						writer.writeLine("return Flux.from(toPublisher(getQueryExecutor().queryRows(SQL))).map(row -> {");
-						writer.writeLine("return null;");
-						writer.writeLine("});");
-						writer.writeLine("}");
-					}
+					writePgAsyncQueryMethodTo(writer, methodName, column.getColumn().getBoxedJavaType());
 				}
 
 				@Override
 				public void visit(Many columns) throws IOException {
-					if (hasParameters()) {
-						writer.writeLine("default Flux<", getResultClassName(), "> ", methodName, '(', getClassName(), "Parameters parameters", ") {");
-						writer.writeLine("return Flux.from(toPublisher(getQueryExecutor().queryRows(SQL, parameters.toArray()))).map(row -> {");
-						writer.writeLine("return null;");
-						writer.writeLine("});");
-						writer.writeLine("}");
+					if (isStreamed()) {
+						writePgAsyncCursorMethodsTo(writer, methodName);
 					} else {
-						writer.writeLine("default Flux<", getResultClassName(), "> ", methodName, "() {");
-						writer.writeLine("return Flux.from(toPublisher(getQueryExecutor().queryRows(SQL))).map(row -> {");
-						writer.writeLine("return null;");
-						writer.writeLine("});");
-						writer.writeLine("}");
+						writePgAsyncQueryMethodTo(writer, methodName, getResultClassName());
+					}
+					if (isColumnar()) {
+						writer.writeEmptyLine();
+						writePgAsyncColumnarMethodsTo(writer, methodName, columns);
 					}
 				}
 
 		});
 		writer.writeEmptyLine();
+		writePgAsyncDecoderTo(writer);
 		writer.writeLine("}");
 		writer.writeEmptyLine();
 	}
 
-	public static final String RESULT_CLASS_PREFIX = "-- Result Class: ";
+	default void writePgAsyncQueryMethodTo(AutoIndentingWriter writer, String methodName, String result) throws IOException {
+		final String parameters = hasParameters() ? getClassName() + "Parameters parameters" : "";
+		final String arguments = hasParameters() ? "parameters" : "";
+		if (isCached()) {
+			writer.writeLine("default Flux<", result, "> ", methodName, '(', parameters, ") {");
+			writeCacheLookupTo(writer, result, methodName + "Uncached(" + arguments + ')');
+			writer.writeLine("}");
+			writer.writeEmptyLine();
+			writer.writeLine("default Flux<", result, "> ", methodName, "Uncached(", parameters, ") {");
+		} else {
+			writer.writeLine("default Flux<", result, "> ", methodName, '(', parameters, ") {");
+		}
+		writer.writeLine("return QueryMetrics.measure(DESCRIPTOR, Flux.from(toPublisher(getQueryExecutor().queryRows(SQL", hasParameters() ? ", parameters.toArray()" : "", "))).map(PgAsync::decode)", getInvalidationOfRows(), ");");
+		writer.writeLine("}");
+	}
 
-	default String getResultClassName() {
-		for (final String line : getLinesOfSQL()) {
-			if (line.startsWith(RESULT_CLASS_PREFIX)) {
-				return line.substring(RESULT_CLASS_PREFIX.length());
+	default void writeCacheLookupTo(AutoIndentingWriter writer, String result, String uncached) throws IOException {
+		writer.writeLine("final QueryCache.Key key = ", getCacheKey(), ';');
+		writer.writeLine("final List<", result, "> cached = CACHE.get(key);");
+		writer.writeLine("if (cached != null) {");
+		writer.writeLine("return Flux.fromIterable(cached);");
+		writer.writeLine("}");
+		writer.writeLine("final long generation = CACHE.getGeneration();");
+		writer.writeLine("return ", uncached, ".collectList().doOnNext(rows -> CACHE.put(key, rows, generation)).flatMapIterable(rows -> rows);");
+	}
+
+	default OptionalInt getStreamingFetchSize() {
+		final Optional<String> directive = getSql().getDirective(FETCH_SIZE_DIRECTIVE);
+		if (directive.isPresent()) {
+			final int fetchSize;
+			try {
+				fetchSize = Integer.parseInt(directive.get().trim());
+			} catch (NumberFormatException exception) {
+				throw new IllegalArgumentException("The " + FETCH_SIZE_DIRECTIVE + " directive must be a number of rows, but was '" + directive.get() + "'!", exception);
+			}
+			if (fetchSize <= 0) {
+				throw new IllegalArgumentException("The " + FETCH_SIZE_DIRECTIVE + " directive must be a positive number of rows, but was " + fetchSize + "!");
+			}
+			return OptionalInt.of(fetchSize);
+		}
+		return getFetchSize();
+	}
+
+	default boolean isStreamed() {
+		return getResultColumns() instanceof Many && getStreamingFetchSize().isPresent() && isCached() == false && hasWrittenTables() == false;
+	}
+
+	default void writePgAsyncCursorMethodsTo(AutoIndentingWriter writer, String methodName) throws IOException {
+		final String result = getResultClassName();
+		final String arguments = hasParameters() ? ", parameters.toArray()" : "";
+		writer.writeLine("public static final int FETCH_SIZE = ", getStreamingFetchSize().getAsInt(), ';');
+		writer.writeLine("public static final AtomicLong NUMBER_OF_CURSORS = new AtomicLong();");
+		writer.writeEmptyLine();
+		final String call = hasParameters() ? methodName + "(transaction, parameters)" : methodName + "(transaction)";
+		if (hasParameters()) {
+			writer.writeLine("default Flux<", result, "> ", methodName, '(', getClassName(), "Parameters parameters) {");
+		} else {
+			writer.writeLine("default Flux<", result, "> ", methodName, "() {");
+		}
+		writer.writeLine("return Mono.from(toPublisher(getQueryExecutor().begin())).flatMapMany(transaction -> ", call, ".concatWith(Mono.from(toPublisher(transaction.commit())).then(Mono.empty())).onErrorResume(error -> Mono.from(toPublisher(transaction.rollback())).then(Mono.error(error))).doOnCancel(() -> transaction.rollback().subscribe()));");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		if (hasParameters()) {
+			writer.writeLine("default Flux<", result, "> ", methodName, "(Transaction transaction, ", getClassName(), "Parameters parameters) {");
+		} else {
+			writer.writeLine("default Flux<", result, "> ", methodName, "(Transaction transaction) {");
+		}
+		writer.writeLine("final String cursor = STATEMENT_NAME + '_' + NUMBER_OF_CURSORS.incrementAndGet();");
+		writer.writeLine("final Mono<Void> declared = Mono.from(toPublisher(transaction.querySet(\"DECLARE \" + cursor + \" NO SCROLL CURSOR FOR \" + SQL", arguments, "))).then();");
+		writer.writeLine("final Flux<Row> rows = Mono.defer(() -> Mono.from(toPublisher(transaction.querySet(\"FETCH FORWARD \" + FETCH_SIZE + \" FROM \" + cursor)))).repeat().takeUntil(chunk -> chunk.size() < FETCH_SIZE).concatMap(Flux::fromIterable, 1);");
+		writer.writeLine("final Mono<Void> closed = Mono.defer(() -> Mono.from(toPublisher(transaction.querySet(\"CLOSE \" + cursor)))).then();");
+		writer.writeLine("return QueryMetrics.measure(DESCRIPTOR, Flux.usingWhen(declared.thenReturn(cursor), name -> rows.map(PgAsync::decode), name -> closed, (name, error) -> closed.onErrorResume(closeError -> Mono.empty()), name -> closed));");
+		writer.writeLine("}");
+	}
+
+	default void writePgAsyncColumnarMethodsTo(AutoIndentingWriter writer, String methodName, Many columns) throws IOException {
+		final String holder = getColumnsClassName();
+		if (hasParameters()) {
+			writer.writeLine("default Mono<", holder, "> ", methodName, "Columns(", getClassName(), "Parameters parameters) {");
+			writer.writeLine("return QueryMetrics.measure(DESCRIPTOR, Flux.from(toPublisher(getQueryExecutor().queryRows(SQL, parameters.toArray()))))", getInvalidationOfRows(), ".collect(", holder, "::new, PgAsync::decodeInto);");
+		} else {
+			writer.writeLine("default Mono<", holder, "> ", methodName, "Columns() {");
+			writer.writeLine("return QueryMetrics.measure(DESCRIPTOR, Flux.from(toPublisher(getQueryExecutor().queryRows(SQL))))", getInvalidationOfRows(), ".collect(", holder, "::new, PgAsync::decodeInto);");
+		}
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("public static void decodeInto(", holder, " columns, Row row) {");
+		int index = 0;
+		for (final PostgresField column : columns) {
+			PgAsyncCodec.writeColumnarDecoderTo(writer, column, index ++);
+		}
+		writeAdditionTo(writer, columns, PgAsyncCodec::getVariableName);
+		writer.writeLine("}");
+	}
+
+	default void writeAdditionTo(AutoIndentingWriter writer, Many columns, IntFunction<String> variables) throws IOException {
+		writer.write("columns.append(");
+		int index = 0;
+		for (final PostgresField column : columns) {
+			if (index > 0) {
+				writer.write(", ");
 			}
+			writer.write(ColumnarCodec.getArgumentsOf(column, variables.apply(index ++)));
+		}
+		writer.writeLine(");");
+	}
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	default boolean isBatchable() {
+		return hasParameters() && getResultColumns() == None.NONE;
+	}
+
+	public static final int MAXIMUM_NUMBER_OF_BIND_PARAMETERS = 65535;
+
+	default Optional<BulkInsert> getMultiRowInsert() {
+		if (isBatchable() == false) {
+			return Optional.empty();
 		}
-		return getClassName() + "Result";
+		return BulkInsert.detect(getNormalizedSql(), getParameterNames());
+	}
+
+	default void writePgAsyncBatchMethodsTo(AutoIndentingWriter writer, String methodName, BulkInsert multiRowInsert) throws IOException {
+		final String parameters = "? extends " + getClassName() + "Parameters";
+		writer.writeLine("public static final int DEFAULT_BATCH_SIZE = ", DEFAULT_BATCH_SIZE, ';');
+		writer.writeLine("public static final String MULTI_ROW_SQL = \"", escape(multiRowInsert.getMultiRowInsertSql()), "\";");
+		writer.writeLine("public static final int PARAMETERS_PER_ROW = ", getParameterNames().size(), ';');
+		writer.writeLine("public static final int MAXIMUM_ROWS_PER_STATEMENT = ", MAXIMUM_NUMBER_OF_BIND_PARAMETERS, " / PARAMETERS_PER_ROW;");
+		writer.writeEmptyLine();
+		writer.writeLine("public static String getMultiRowSql(int numberOfRows) {");
+		writer.writeLine("final StringJoiner rows = new StringJoiner(\", \", MULTI_ROW_SQL, \"\");");
+		writer.writeLine("int parameter = 1;");
+		writer.writeLine("for (int index = 0; index < numberOfRows; index ++) {");
+		writer.writeLine("final StringJoiner row = new StringJoiner(\", \", \"(\", \")\");");
+		writer.writeLine("for (int column = 0; column < PARAMETERS_PER_ROW; column ++) {");
+		writer.writeLine("row.add(\"$\" + parameter ++);");
+		writer.writeLine("}");
+		writer.writeLine("rows.add(row.toString());");
+		writer.writeLine("}");
+		writer.writeLine("return rows.toString();");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("public static Object[] getMultiRowParametersOf(List<", parameters, "> rows) {");
+		writer.writeLine("final Object[] values = new Object[rows.size() * PARAMETERS_PER_ROW];");
+		writer.writeLine("int offset = 0;");
+		writer.writeLine("for (final ", getClassName(), "Parameters row : rows) {");
+		writer.writeLine("System.arraycopy(row.toArray(), 0, values, offset, PARAMETERS_PER_ROW);");
+		writer.writeLine("offset += PARAMETERS_PER_ROW;");
+		writer.writeLine("}");
+		writer.writeLine("return values;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default Flux<Long> ", methodName, "Batch(Iterable<", parameters, "> parameters) {");
+		writer.writeLine("return ", methodName, "Batch(Flux.fromIterable(parameters), DEFAULT_BATCH_SIZE);");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default Flux<Long> ", methodName, "Batch(Publisher<", parameters, "> parameters) {");
+		writer.writeLine("return ", methodName, "Batch(parameters, DEFAULT_BATCH_SIZE);");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default Flux<Long> ", methodName, "Batch(Publisher<", parameters, "> parameters, int batchSize) {");
+		writer.writeLine("return Flux.from(parameters).buffer(batchSize).concatMap(chunk -> ", methodName, "Chunk(chunk));");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default Mono<Long> ", methodName, "Chunk(List<", parameters, "> chunk) {");
+		final String commit = hasWrittenTables() ? "Mono.from(toPublisher(transaction.commit())).then(" + getInvalidation() + ')' : "Mono.from(toPublisher(transaction.commit()))";
+		writer.writeLine("return Mono.from(toPublisher(getQueryExecutor().begin())).flatMap(transaction -> ", methodName, "Chunk(transaction, chunk).flatMap(sum -> ", commit, ".then(Mono.just(sum))).onErrorResume(error -> Mono.from(toPublisher(transaction.rollback())).then(Mono.error(error))));");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default Mono<Long> ", methodName, "Chunk(Transaction transaction, List<", parameters, "> chunk) {");
+		writer.writeLine("final int numberOfStatements = (chunk.size() + MAXIMUM_ROWS_PER_STATEMENT - 1) / MAXIMUM_ROWS_PER_STATEMENT;");
+		writer.writeLine("final Mono<Long> updatedRows = Flux.range(0, numberOfStatements).map(index -> chunk.subList(index * MAXIMUM_ROWS_PER_STATEMENT, Math.min(chunk.size(), (index + 1) * MAXIMUM_ROWS_PER_STATEMENT))).concatMap(rows -> toPublisher(transaction.querySet(getMultiRowSql(rows.size()), getMultiRowParametersOf(rows)))).reduce(0L, (sum, result) -> sum + result.updatedRows());");
+		writeMeasuredUpdateTo(writer);
+		writer.writeLine("}");
+	}
+
+	default void writePgAsyncDecoderTo(AutoIndentingWriter writer) throws IOException {
+		getResultColumns().accept(new Visitor<IOException>() {
+
+				@Override
+				public void visit(None columns) {
+					return;
+				}
+
+				@Override
+				public void visit(One column) throws IOException {
+					writer.writeLine("public static ", column.getColumn().getBoxedJavaType(), " decode(Row row) {");
+					PgAsyncCodec.writeDecoderTo(writer, column.getColumn(), 0);
+					writer.writeLine("return ", PgAsyncCodec.getVariableName(0), ';');
+					writer.writeLine("}");
+					writer.writeEmptyLine();
+				}
+
+				@Override
+				public void visit(Many columns) throws IOException {
+					writer.writeLine("public static ", getResultClassName(), " decode(Row row) {");
+					int index = 0;
+					for (final PostgresField column : columns) {
+						PgAsyncCodec.writeDecoderTo(writer, column, index ++);
+					}
+					writeConstructionOfResultTo(writer, columns, PgAsyncCodec::getVariableName);
+					writer.writeLine("}");
+					writer.writeEmptyLine();
+				}
+
+		});
+	}
+
+	default void writeConstructionOfResultTo(AutoIndentingWriter writer, Many columns, IntFunction<String> variables) throws IOException {
+		int index = 0;
+		if (canBeConstructedDirectly(columns)) {
+			writer.write("return Immutable", getResultClassName(), ".of(");
+			for (final PostgresField column : columns) {
+				if (index > 0) {
+					writer.write(", ");
+				}
+				writer.write(variables.apply(index ++));
+			}
+			writer.writeLine(");");
+		} else {
+			writer.writeLine("return Immutable", getResultClassName(), ".builder()");
+			for (final PostgresField column : columns) {
+				writer.writeLine('.', uncapitalize(column.getName()), '(', variables.apply(index ++), ')');
+			}
+			writer.writeLine(".build();");
+		}
+	}
+
+	public static final int MAXIMUM_NUMBER_OF_PARAMETER_SLOTS = 253;
+
+	public static boolean canBeConstructedDirectly(Many columns) {
+		int slots = 0;
+		for (final PostgresField column : columns) {
+			switch (column.getType()) {
+				case DOUBLE:
+				case LONG:
+					slots += 2;
+					break;
+				default:
+					slots += 1;
+			}
+		}
+		return slots <= MAXIMUM_NUMBER_OF_PARAMETER_SLOTS;
+	}
+
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+	public static final int FORCE_BINARY_TRANSFER = -1;
+
+	default boolean hasBinaryResultColumns() {
+		for (final PostgresField column : getResultColumns()) {
+			if (JdbcCodec.hasBinaryDecoder(column.getType())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	default void writeJdbcMethodTo(AutoIndentingWriter writer) throws IOException {
+		final String methodName = uncapitalize(getClassName());
+		writer.writeLine("public interface Jdbc extends ", getClassName(), " {");
+		writer.writeEmptyLine();
+		writer.writeLine("DataSource getDataSource();");
+		writer.writeEmptyLine();
+		if (hasParameters()) {
+			writer.writeLine("public static final String SQL = \"", escape(getWireSql(index -> "?")), "\";");
+			writer.writeEmptyLine();
+		}
+		writer.writeLine("public static PreparedStatement prepare(Connection connection) throws SQLException {");
+		writer.writeLine("final PreparedStatement statement = connection.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);");
+		writer.writeLine("if (statement.isWrapperFor(PGStatement.class)) {");
+		writer.writeLine("statement.unwrap(PGStatement.class).setPrepareThreshold(", hasBinaryResultColumns() ? FORCE_BINARY_TRANSFER : 1, ");");
+		writer.writeLine("}");
+		writer.writeLine("return statement;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		if (hasParameters()) {
+			writeJdbcBinderTo(writer);
+		}
+		getResultColumns().accept(new Visitor<IOException>() {
+
+				@Override
+				public void visit(None columns) throws IOException {
+					writer.writeLine("default long ", methodName, '(', getJdbcParameters(false, null), ") throws SQLException {");
+					writer.writeLine("try (final Connection connection = getDataSource().getConnection()) {");
+					writer.writeLine("return ", methodName, '(', getJdbcArguments(null), ");");
+					writer.writeLine("}");
+					writer.writeLine("}");
+					writer.writeEmptyLine();
+					writer.writeLine("default long ", methodName, '(', getJdbcParameters(true, null), ") throws SQLException {");
+					writer.writeLine("try (final PreparedStatement statement = prepare(connection)) {");
+					if (hasParameters()) {
+						writer.writeLine("bind(statement, parameters);");
+					}
+					if (hasWrittenTables()) {
+						writer.writeLine("final long updatedRows = statement.executeLargeUpdate();");
+						writer.writeLine("invalidateCaches();");
+						writer.writeLine("return updatedRows;");
+					} else {
+						writer.writeLine("return statement.executeLargeUpdate();");
+					}
+					writer.writeLine("}");
+					writer.writeLine("}");
+					writer.writeEmptyLine();
+					if (isBatchable()) {
+						writeJdbcBatchMethodsTo(writer, methodName);
+					}
+					final Optional<BulkInsert> bulkInsert = getBulkInsert();
+					if (bulkInsert.isPresent()) {
+						writeJdbcBulkMethodsTo(writer, methodName, bulkInsert.get());
+					}
+				}
+
+				@Override
+				public void visit(One column) throws IOException {
+					final String consumer = JdbcCodec.getConsumerOf(column.getColumn());
+					if (isCached()) {
+						writeJdbcCachedMethodsTo(writer, methodName, consumer, column.getColumn().getBoxedJavaType());
+					}
+					writeJdbcQueryMethodsTo(writer, getUncachedMethodName(methodName), consumer, () -> {
+						JdbcCodec.writeDecoderTo(writer, column.getColumn(), 0);
+						writer.writeLine("consumer.accept(", JdbcCodec.getVariableName(0), ");");
+					});
+				}
+
+				@Override
+				public void visit(Many columns) throws IOException {
+					writer.writeLine("public static final int DEFAULT_FETCH_SIZE = ", getStreamingFetchSize().orElse(DEFAULT_FETCH_SIZE), ';');
+					writer.writeEmptyLine();
+					writer.writeLine("default int getFetchSize() {");
+					writer.writeLine("return DEFAULT_FETCH_SIZE;");
+					writer.writeLine("}");
+					writer.writeEmptyLine();
+					writer.writeLine("public static ", getResultClassName(), " decode(ResultSet results) throws SQLException {");
+					int index = 0;
+					for (final PostgresField column : columns) {
+						JdbcCodec.writeDecoderTo(writer, column, index ++);
+					}
+					writeConstructionOfResultTo(writer, columns, JdbcCodec::getVariableName);
+					writer.writeLine("}");
+					writer.writeEmptyLine();
+					final String consumer = "Consumer<? super " + getResultClassName() + '>';
+					if (isCached()) {
+						writeJdbcCachedMethodsTo(writer, methodName, consumer, getResultClassName());
+					}
+					writeJdbcQueryMethodsTo(writer, getUncachedMethodName(methodName), consumer, () -> {
+						writer.writeLine("consumer.accept(decode(results));");
+					});
+					if (isColumnar()) {
+						writeJdbcColumnarMethodsTo(writer, methodName, columns);
+					}
+				}
+
+		});
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default Optional<BulkInsert> getBulkInsert() {
+		if (isBatchable() == false || getBackends().contains(Backend.JDBC) == false) {
+			return Optional.empty();
+		}
+		final Map<String, PostgresField> parameters = new LinkedHashMap<>();
+		for (final PostgresField parameter : getParameters().unique()) {
+			parameters.put(parameter.getName(), parameter);
+			if (CopyCodec.canEncode(parameter) == false) {
+				return Optional.empty();
+			}
+		}
+		return BulkInsert.from(getNormalizedSql(), getSql(), new ArrayList<>(parameters.keySet()));
+	}
+
+	default void writeJdbcBatchMethodsTo(AutoIndentingWriter writer, String methodName) throws IOException {
+		final String rows = "Iterable<? extends " + getClassName() + "Parameters> rows";
+		writer.writeLine("public static final int DEFAULT_BATCH_SIZE = ", DEFAULT_BATCH_SIZE, ';');
+		writer.writeEmptyLine();
+		writer.writeLine("public static long sumOf(int[] updatedRows) {");
+		writer.writeLine("long sum = 0;");
+		writer.writeLine("for (final int count : updatedRows) {");
+		writer.writeLine("if (count > 0) {");
+		writer.writeLine("sum += count;");
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeLine("return sum;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default long ", methodName, "Batch(", rows, ") throws SQLException {");
+		writer.writeLine("try (final Connection connection = getDataSource().getConnection()) {");
+		writer.writeLine("return ", methodName, "Batch(connection, rows, DEFAULT_BATCH_SIZE);");
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default long ", methodName, "Batch(Connection connection, ", rows, ") throws SQLException {");
+		writer.writeLine("return ", methodName, "Batch(connection, rows, DEFAULT_BATCH_SIZE);");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default long ", methodName, "Batch(Connection connection, ", rows, ", int batchSize) throws SQLException {");
+		writer.writeLine("if (batchSize <= 0) {");
+		writer.writeLine("throw new IllegalArgumentException(\"The size of a batch must be positive, but was \" + batchSize + \"!\");");
+		writer.writeLine("}");
+		writer.writeLine("long updatedRows = 0;");
+		writer.writeLine("try (final PreparedStatement statement = prepare(connection)) {");
+		writer.writeLine("int numberOfRows = 0;");
+		writer.writeLine("for (final ", getClassName(), "Parameters row : rows) {");
+		writer.writeLine("bind(statement, row);");
+		writer.writeLine("statement.addBatch();");
+		writer.writeLine("if (++ numberOfRows == batchSize) {");
+		writer.writeLine("updatedRows += sumOf(statement.executeBatch());");
+		writer.writeLine("numberOfRows = 0;");
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeLine("if (numberOfRows > 0) {");
+		writer.writeLine("updatedRows += sumOf(statement.executeBatch());");
+		writer.writeLine("}");
+		if (hasWrittenTables()) {
+			writer.writeLine("} finally {");
+			writer.writeLine("invalidateCaches();");
+		}
+		writer.writeLine("}");
+		writer.writeLine("return updatedRows;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default void writeJdbcBulkMethodsTo(AutoIndentingWriter writer, String methodName, BulkInsert bulkInsert) throws IOException {
+		final Map<String, PostgresField> parameters = new HashMap<>();
+		for (final PostgresField parameter : getParameters().unique()) {
+			parameters.put(parameter.getName(), parameter);
+		}
+		final String rows = "Iterable<? extends " + getClassName() + "Parameters> rows";
+		writer.writeLine("public static final String COPY_SQL = \"", escape(bulkInsert.getCopySql()), "\";");
+		writer.writeEmptyLine();
+		writer.writeLine("default long ", methodName, "Bulk(", rows, ") throws SQLException {");
+		writer.writeLine("try (final Connection connection = getDataSource().getConnection()) {");
+		writer.writeLine("return ", methodName, "Bulk(connection, rows);");
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default long ", methodName, "Bulk(Connection connection, ", rows, ") throws SQLException {");
+		writer.writeLine("try (final BinaryCopyWriter copy = BinaryCopyWriter.start(connection, COPY_SQL)) {");
+		writer.writeLine("for (final ", getClassName(), "Parameters row : rows) {");
+		writer.writeLine("copy.startRow(", bulkInsert.getParameterNames().size(), ");");
+		int index = 0;
+		for (final String name : bulkInsert.getParameterNames()) {
+			CopyCodec.writeEncoderTo(writer, parameters.get(name), "row.get" + capitalize(name) + "()", index ++);
+		}
+		writer.writeLine("}");
+		if (hasWrittenTables()) {
+			writer.writeLine("final long insertedRows = copy.finish();");
+			writer.writeLine("invalidateCaches();");
+			writer.writeLine("return insertedRows;");
+		} else {
+			writer.writeLine("return copy.finish();");
+		}
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default void writeJdbcBinderTo(AutoIndentingWriter writer) throws IOException {
+		writer.writeLine("public static void bind(PreparedStatement statement, ", getClassName(), "Parameters parameters) throws SQLException {");
+		for (final PostgresField parameter : getParameters().unique()) {
+			writer.writeLine("final ", parameter.getJavaType(), ' ', JdbcCodec.getParameterVariableName(parameter.getName()), " = parameters.get", capitalize(parameter.getName()), "();");
+		}
+		int index = 0;
+		for (final PostgresField parameter : getParameters()) {
+			JdbcCodec.writeEncoderTo(writer, parameter, index ++);
+		}
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default void writeJdbcQueryMethodsTo(AutoIndentingWriter writer, String methodName, String consumer, RowWriter row) throws IOException {
+		writeJdbcQueryMethodsTo(writer, methodName, consumer, "consumer", row);
+	}
+
+	default void writeJdbcQueryMethodsTo(AutoIndentingWriter writer, String methodName, String consumer, String consumerName, RowWriter row) throws IOException {
+		writer.writeLine("default void ", methodName, '(', getJdbcParameters(false, consumer, consumerName), ") throws SQLException {");
+		writer.writeLine("try (final Connection connection = getDataSource().getConnection()) {");
+		writer.writeLine(methodName, '(', getJdbcArguments(consumerName), ");");
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default void ", methodName, '(', getJdbcParameters(true, consumer, consumerName), ") throws SQLException {");
+		final boolean isStreaming = getResultColumns() instanceof Many;
+		if (isStreaming) {
+			writer.writeLine("final boolean isAutoCommit = connection.getAutoCommit();");
+			writer.writeLine("if (isAutoCommit) {");
+			writer.writeLine("connection.setAutoCommit(false);");
+			writer.writeLine("}");
+		}
+		writer.writeLine("try (final PreparedStatement statement = prepare(connection)) {");
+		if (isStreaming) {
+			writer.writeLine("statement.setFetchSize(getFetchSize());");
+		}
+		if (hasParameters()) {
+			writer.writeLine("bind(statement, parameters);");
+		}
+		writer.writeLine("try (final ResultSet results = statement.executeQuery()) {");
+		writer.writeLine("while (results.next()) {");
+		row.write();
+		writer.writeLine("}");
+		if (hasWrittenTables()) {
+			writer.writeLine("} finally {");
+			writer.writeLine("invalidateCaches();");
+		}
+		writer.writeLine("}");
+		if (isStreaming) {
+			writer.writeLine("} finally {");
+			writer.writeLine("if (isAutoCommit) {");
+			writer.writeLine("connection.setAutoCommit(true);");
+			writer.writeLine("}");
+		}
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default void writeJdbcColumnarMethodsTo(AutoIndentingWriter writer, String methodName, Many columns) throws IOException {
+		final String holder = getColumnsClassName();
+		writer.writeLine("public static void decodeInto(", holder, " columns, ResultSet results) throws SQLException {");
+		int index = 0;
+		for (final PostgresField column : columns) {
+			JdbcCodec.writeColumnarDecoderTo(writer, column, index ++);
+		}
+		writeAdditionTo(writer, columns, JdbcCodec::getVariableName);
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writeJdbcQueryMethodsTo(writer, methodName + "Into", holder, "columns", () -> {
+			writer.writeLine("decodeInto(columns, results);");
+		});
+		writer.writeLine("default ", holder, ' ', methodName, "Columns(", getJdbcParameters(false, null), ") throws SQLException {");
+		writer.writeLine("final ", holder, " columns = new ", holder, "();");
+		writer.writeLine(methodName, "Into(", hasParameters() ? "parameters, " : "", "columns);");
+		writer.writeLine("return columns;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default ", holder, ' ', methodName, "Columns(", getJdbcParameters(true, null), ") throws SQLException {");
+		writer.writeLine("final ", holder, " columns = new ", holder, "();");
+		writer.writeLine(methodName, "Into(", getJdbcArguments("columns"), ");");
+		writer.writeLine("return columns;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default void writeJdbcCachedMethodsTo(AutoIndentingWriter writer, String methodName, String consumer, String result) throws IOException {
+		writer.writeLine("default void ", methodName, '(', getJdbcParameters(false, consumer), ") throws SQLException {");
+		writer.writeLine("try (final Connection connection = getDataSource().getConnection()) {");
+		writer.writeLine(methodName, '(', getJdbcArguments("consumer"), ");");
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("default void ", methodName, '(', getJdbcParameters(true, consumer), ") throws SQLException {");
+		writer.writeLine("final QueryCache.Key key = ", getCacheKey(), ';');
+		writer.writeLine("List<", result, "> rows = CACHE.get(key);");
+		writer.writeLine("if (rows == null) {");
+		writer.writeLine("final long generation = CACHE.getGeneration();");
+		writer.writeLine("final List<", result, "> loaded = new ArrayList<>();");
+		writer.writeLine(methodName, "Uncached(", getJdbcArguments("loaded::add"), ");");
+		writer.writeLine("CACHE.put(key, loaded, generation);");
+		writer.writeLine("rows = loaded;");
+		writer.writeLine("}");
+		writer.writeLine("for (final ", result, " row : rows) {");
+		writer.writeLine("consumer.accept(row);");
+		writer.writeLine("}");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default String getUncachedMethodName(String methodName) {
+		return isCached() ? methodName + "Uncached" : methodName;
+	}
+
+	interface RowWriter {
+		void write() throws IOException;
+	}
+
+	default String getJdbcParameters(boolean withConnection, String consumer) {
+		return getJdbcParameters(withConnection, consumer, "consumer");
+	}
+
+	default String getJdbcParameters(boolean withConnection, String consumer, String consumerName) {
+		final StringBuilder parameters = new StringBuilder();
+		if (withConnection) {
+			parameters.append("Connection connection");
+		}
+		if (hasParameters()) {
+			if (parameters.length() > 0) {
+				parameters.append(", ");
+			}
+			parameters.append(getClassName()).append("Parameters parameters");
+		}
+		if (consumer != null) {
+			if (parameters.length() > 0) {
+				parameters.append(", ");
+			}
+			parameters.append(consumer).append(' ').append(consumerName);
+		}
+		return parameters.toString();
+	}
+
+	default String getJdbcArguments(String consumer) {
+		final StringBuilder arguments = new StringBuilder("connection");
+		if (hasParameters()) {
+			arguments.append(", parameters");
+		}
+		if (consumer != null) {
+			arguments.append(", ").append(consumer);
+		}
+		return arguments.toString();
+	}
+
+	default String getR2dbcConnection() {
+		return getBackends().contains(Backend.JDBC) ? "io.r2dbc.spi.Connection" : "Connection";
+	}
+
+	default String getR2dbcRow() {
+		return getBackends().contains(Backend.PG_ASYNC) ? "io.r2dbc.spi.Row" : "Row";
+	}
+
+	default void writeR2dbcMethodTo(AutoIndentingWriter writer) throws IOException {
+		final String methodName = uncapitalize(getClassName());
+		writer.writeLine("public interface R2dbc extends ", getClassName(), " {");
+		writer.writeEmptyLine();
+		writer.writeLine("ConnectionFactory getConnectionFactory();");
+		writer.writeEmptyLine();
+		if (hasParameters()) {
+			writeR2dbcBinderTo(writer);
+		}
+		if (isStreamed()) {
+			writer.writeLine("public static final int FETCH_SIZE = ", getStreamingFetchSize().getAsInt(), ';');
+			writer.writeEmptyLine();
+		}
+		getResultColumns().accept(new Visitor<IOException>() {
+
+				@Override
+				public void visit(None columns) throws IOException {
+					writeR2dbcConnectingMethodTo(writer, "Mono<Long>", methodName);
+					writer.writeLine("default Mono<Long> ", methodName, '(', getR2dbcParameters(true), ") {");
+					writer.writeLine("final Mono<Long> updatedRows = ", getR2dbcUpdate(hasParameters() ? "bind(connection.createStatement(SQL), parameters)" : "connection.createStatement(SQL)"), ';');
+					writeMeasuredUpdateTo(writer);
+					writer.writeLine("}");
+					writer.writeEmptyLine();
+					if (isBatchable()) {
+						writeR2dbcBatchMethodsTo(writer, methodName);
+					}
+				}
+
+				@Override
+				public void visit(One column) throws IOException {
+					writeR2dbcQueryMethodsTo(writer, methodName, column.getColumn().getBoxedJavaType());
+				}
+
+				@Override
+				public void visit(Many columns) throws IOException {
+					writeR2dbcQueryMethodsTo(writer, methodName, getResultClassName());
+					if (isColumnar()) {
+						writeR2dbcColumnarMethodsTo(writer, methodName, columns);
+					}
+				}
+
+		});
+		writeR2dbcDecoderTo(writer);
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default void writeR2dbcBinderTo(AutoIndentingWriter writer) throws IOException {
+		writer.writeLine("public static Statement bind(Statement statement, ", getClassName(), "Parameters parameters) {");
+		for (final PostgresField parameter : getParameters().unique()) {
+			writer.writeLine("final ", parameter.getJavaType(), ' ', JdbcCodec.getParameterVariableName(parameter.getName()), " = parameters.get", capitalize(parameter.getName()), "();");
+		}
+		int index = 0;
+		for (final PostgresField parameter : getParameters()) {
+			R2dbcCodec.writeEncoderTo(writer, parameter, index ++);
+		}
+		writer.writeLine("return statement;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default String getR2dbcUpdate(String statement) {
+		return "Flux.from(" + statement + ".execute()).flatMap(Result::getRowsUpdated).reduce(0L, (sum, updated) -> sum + updated.longValue())";
+	}
+
+	default void writeMeasuredUpdateTo(AutoIndentingWriter writer) throws IOException {
+		if (hasWrittenTables()) {
+			writer.writeLine("return QueryMetrics.measureUpdate(DESCRIPTOR, updatedRows.flatMap(sum -> ", getInvalidation(), ".thenReturn(sum)));");
+		} else {
+			writer.writeLine("return QueryMetrics.measureUpdate(DESCRIPTOR, updatedRows);");
+		}
+	}
+
+	default void writeR2dbcConnectingMethodTo(AutoIndentingWriter writer, String result, String methodName) throws IOException {
+		writeR2dbcConnectingMethodTo(writer, result, methodName, getR2dbcParameters(false), hasParameters() ? "connection, parameters" : "connection");
+	}
+
+	default void writeR2dbcConnectingMethodTo(AutoIndentingWriter writer, String result, String methodName, String parameters, String arguments) throws IOException {
+		final String publisher = result.substring(0, result.indexOf('<'));
+		writer.writeLine("default ", result, ' ', methodName, '(', parameters, ") {");
+		writer.writeLine("return ", publisher, ".usingWhen(getConnectionFactory().create(), connection -> ", methodName, '(', arguments, "), ", getR2dbcConnection(), "::close);");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default String getR2dbcParameters(boolean withConnection) {
+		final StringBuilder parameters = new StringBuilder();
+		if (withConnection) {
+			parameters.append(getR2dbcConnection()).append(" connection");
+		}
+		if (hasParameters()) {
+			if (parameters.length() > 0) {
+				parameters.append(", ");
+			}
+			parameters.append(getClassName()).append("Parameters parameters");
+		}
+		return parameters.toString();
+	}
+
+	default String getR2dbcStatement() {
+		final String statement = hasParameters() ? "bind(connection.createStatement(SQL), parameters)" : "connection.createStatement(SQL)";
+		return isStreamed() ? statement + ".fetchSize(FETCH_SIZE)" : statement;
+	}
+
+	default void writeR2dbcQueryMethodsTo(AutoIndentingWriter writer, String methodName, String result) throws IOException {
+		final String flux = "Flux<" + result + '>';
+		if (isCached()) {
+			writer.writeLine("default ", flux, ' ', methodName, '(', getR2dbcParameters(false), ") {");
+			writeCacheLookupTo(writer, result, methodName + (hasParameters() ? "Uncached(parameters)" : "Uncached()"));
+			writer.writeLine("}");
+			writer.writeEmptyLine();
+			writer.writeLine("default ", flux, ' ', methodName, '(', getR2dbcParameters(true), ") {");
+			writeCacheLookupTo(writer, result, methodName + (hasParameters() ? "Uncached(connection, parameters)" : "Uncached(connection)"));
+			writer.writeLine("}");
+			writer.writeEmptyLine();
+		}
+		final String uncachedMethodName = getUncachedMethodName(methodName);
+		writeR2dbcConnectingMethodTo(writer, flux, uncachedMethodName);
+		writer.writeLine("default ", flux, ' ', uncachedMethodName, '(', getR2dbcParameters(true), ") {");
+		writer.writeLine("return QueryMetrics.measure(DESCRIPTOR, Flux.from(", getR2dbcStatement(), ".execute()).concatMap(result -> result.map((row, metadata) -> decode(row)))", getInvalidationOfRows(), ");");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default void writeR2dbcColumnarMethodsTo(AutoIndentingWriter writer, String methodName, Many columns) throws IOException {
+		final String holder = getColumnsClassName();
+		writeR2dbcConnectingMethodTo(writer, "Mono<" + holder + '>', methodName + "Columns");
+		writer.writeLine("default Mono<", holder, "> ", methodName, "Columns(", getR2dbcParameters(true), ") {");
+		writer.writeLine("return Mono.fromSupplier(", holder, "::new).flatMap(columns -> QueryMetrics.measure(DESCRIPTOR, Flux.from(", getR2dbcStatement(), ".execute()).concatMap(result -> result.map((row, metadata) -> decodeInto(columns, row))))", getInvalidationOfRows(), ".then(Mono.just(columns)));");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+		writer.writeLine("public static ", holder, " decodeInto(", holder, " columns, ", getR2dbcRow(), " row) {");
+		int index = 0;
+		for (final PostgresField column : columns) {
+			R2dbcCodec.writeColumnarDecoderTo(writer, column, index ++);
+		}
+		writeAdditionTo(writer, columns, R2dbcCodec::getVariableName);
+		writer.writeLine("return columns;");
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default void writeR2dbcBatchMethodsTo(AutoIndentingWriter writer, String methodName) throws IOException {
+		final String rows = "Iterable<? extends " + getClassName() + "Parameters> rows";
+		writeR2dbcConnectingMethodTo(writer, "Mono<Long>", methodName + "Batch", rows, "connection, rows");
+		writer.writeLine("default Mono<Long> ", methodName, "Batch(", getR2dbcConnection(), " connection, ", rows, ") {");
+		writer.writeLine("final Iterator<? extends ", getClassName(), "Parameters> iterator = rows.iterator();");
+		writer.writeLine("if (iterator.hasNext() == false) {");
+		writer.writeLine("return Mono.just(0L);");
+		writer.writeLine("}");
+		writer.writeLine("final Statement statement = bind(connection.createStatement(SQL), iterator.next());");
+		writer.writeLine("while (iterator.hasNext()) {");
+		writer.writeLine("bind(statement.add(), iterator.next());");
+		writer.writeLine("}");
+		writer.writeLine("final Mono<Long> updatedRows = ", getR2dbcUpdate("statement"), ';');
+		writeMeasuredUpdateTo(writer);
+		writer.writeLine("}");
+		writer.writeEmptyLine();
+	}
+
+	default void writeR2dbcDecoderTo(AutoIndentingWriter writer) throws IOException {
+		getResultColumns().accept(new Visitor<IOException>() {
+
+				@Override
+				public void visit(None columns) {
+					return;
+				}
+
+				@Override
+				public void visit(One column) throws IOException {
+					writer.writeLine("public static ", column.getColumn().getBoxedJavaType(), " decode(", getR2dbcRow(), " row) {");
+					R2dbcCodec.writeDecoderTo(writer, column.getColumn(), 0);
+					writer.writeLine("return ", R2dbcCodec.getVariableName(0), ';');
+					writer.writeLine("}");
+					writer.writeEmptyLine();
+				}
+
+				@Override
+				public void visit(Many columns) throws IOException {
+					writer.writeLine("public static ", getResultClassName(), " decode(", getR2dbcRow(), " row) {");
+					int index = 0;
+					for (final PostgresField column : columns) {
+						R2dbcCodec.writeDecoderTo(writer, column, index ++);
+					}
+					writeConstructionOfResultTo(writer, columns, R2dbcCodec::getVariableName);
+					writer.writeLine("}");
+					writer.writeEmptyLine();
+				}
+
+		});
+	}
+
+	default String getResultClassName() {
+		return getSql().getDirective(RESULT_CLASS_DIRECTIVE).orElseGet(() -> getClassName() + "Result");
 	}
 
 	default void writeEndOfClassTo(AutoIndentingWriter writer) throws IOException {
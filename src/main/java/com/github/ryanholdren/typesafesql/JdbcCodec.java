@@ -0,0 +1,217 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.io.IOException;
+
+class JdbcCodec {
+
+	public static String getVariableName(int index) {
+		return "column" + index;
+	}
+
+	public static String getParameterVariableName(String name) {
+		return "parameter" + JavaClassWriter.capitalize(name);
+	}
+
+	public static void writeDecoderTo(AutoIndentingWriter writer, PostgresField column, int index) throws IOException {
+		final Codec codec = Codec.of(column.getType());
+		final String variable = getVariableName(index);
+		final String value = codec.getValue("results", index + 1);
+		if (column.isNullable()) {
+			final String javaType = column.getJavaType();
+			final String wrapper = getWrapperOf(javaType);
+			final String raw = variable + "Value";
+			writer.writeLine("final ", codec.rawType, ' ', raw, " = ", value, ';');
+			if (codec.isPrimitive()) {
+				writer.writeLine("final ", javaType, ' ', variable, " = results.wasNull() ? ", wrapper, ".empty() : ", wrapper, ".of(", codec.decode(raw), ");");
+			} else {
+				writer.writeLine("final ", javaType, ' ', variable, " = ", raw, " == null ? ", wrapper, ".empty() : ", wrapper, ".of(", codec.decode(raw), ");");
+			}
+		} else {
+			writer.writeLine("final ", column.getJavaType(), ' ', variable, " = ", codec.decode(value), ';');
+		}
+	}
+
+	public static void writeColumnarDecoderTo(AutoIndentingWriter writer, PostgresField column, int index) throws IOException {
+		if (column.isNullable() == false) {
+			writeDecoderTo(writer, column, index);
+			return;
+		}
+		final Codec codec = Codec.of(column.getType());
+		final String variable = getVariableName(index);
+		final String raw = variable + "Value";
+		final String isNull = codec.isPrimitive() ? "results.wasNull()" : raw + " == null";
+		ColumnarCodec.writeNullableDecoderTo(writer, column, variable, codec.rawType, raw, codec.getValue("results", index + 1), isNull, codec.decode(raw));
+	}
+
+	public static void writeEncoderTo(AutoIndentingWriter writer, PostgresField parameter, int index) throws IOException {
+		final Codec codec = Codec.of(parameter.getType());
+		final String variable = getParameterVariableName(parameter.getName());
+		final int offset = index + 1;
+		if (parameter.isNullable()) {
+			writer.writeLine("if (", variable, ".isPresent()) {");
+			writer.writeLine(codec.setValue("statement", offset, codec.encode(variable + getUnwrapperOf(parameter.getJavaType()))), ';');
+			writer.writeLine("} else {");
+			writer.writeLine("statement.setNull(", offset, ", java.sql.Types.", codec.sqlType, ");");
+			writer.writeLine("}");
+		} else {
+			writer.writeLine(codec.setValue("statement", offset, codec.encode(variable)), ';');
+		}
+	}
+
+	public static boolean hasBinaryDecoder(PostgresType type) {
+		return Codec.of(type).isBinary;
+	}
+
+	public static String getConsumerOf(PostgresField column) {
+		switch (column.getType()) {
+			case INTEGER:
+				return "IntConsumer";
+			case LONG:
+				return "LongConsumer";
+			case DOUBLE:
+				return "DoubleConsumer";
+			default:
+				return "Consumer<? super " + column.getBoxedJavaType() + '>';
+		}
+	}
+
+	private static String getWrapperOf(String javaType) {
+		final int indexOfTypeArgument = javaType.indexOf('<');
+		return indexOfTypeArgument < 0 ? javaType : javaType.substring(0, indexOfTypeArgument);
+	}
+
+	public static String getUnwrapperOf(String javaType) {
+		switch (javaType) {
+			case "OptionalInt":
+				return ".getAsInt()";
+			case "OptionalLong":
+				return ".getAsLong()";
+			case "OptionalDouble":
+				return ".getAsDouble()";
+			default:
+				return ".get()";
+		}
+	}
+
+	private static class Codec {
+
+		private static Codec of(PostgresType type) {
+			if (type.isArray()) {
+				return ofArray(type);
+			}
+			switch (type) {
+				case BIG_DECMIAL:
+				case OPTIONAL_BIG_DECMIAL:
+					return new Codec("BigDecimal", "BigDecimal", "BigDecimal", "NUMERIC", "%s", "%s", false);
+				case BOOLEAN:
+				case OPTIONAL_BOOLEAN:
+					return new Codec("Boolean", "Boolean", "boolean", "BOOLEAN", "%s", "%s", false);
+				case BYTE_ARRAY:
+				case OPTIONAL_BYTE_ARRAY:
+					return new Codec("Bytes", "Bytes", "byte[]", "BINARY", "%s", "%s", true);
+				case CHARACTER:
+				case OPTIONAL_CHARACTER:
+					return new Codec("String", "String", "String", "CHAR", "%s.charAt(0)", "String.valueOf(%s)", false);
+				case DOUBLE:
+				case OPTIONAL_DOUBLE:
+					return new Codec("Double", "Double", "double", "DOUBLE", "%s", "%s", true);
+				case FLOAT:
+				case OPTIONAL_FLOAT:
+					return new Codec("Float", "Float", "float", "REAL", "%s", "%s", true);
+				case INTEGER:
+				case OPTIONAL_INTEGER:
+					return new Codec("Int", "Int", "int", "INTEGER", "%s", "%s", true);
+				case LOCAL_DATE:
+				case OPTIONAL_LOCAL_DATE:
+					return new Codec("Object", "LocalDate", "DATE", true);
+				case LOCAL_DATE_TIME:
+				case OPTIONAL_LOCAL_DATE_TIME:
+					return new Codec("Object", "LocalDateTime", "TIMESTAMP", true);
+				case LOCAL_TIME:
+				case OPTIONAL_LOCAL_TIME:
+					return new Codec("Object", "LocalTime", "TIME", true);
+				case LONG:
+				case OPTIONAL_LONG:
+					return new Codec("Long", "Long", "long", "BIGINT", "%s", "%s", true);
+				case OFFSET_DATE_TIME:
+				case OPTIONAL_OFFSET_DATE_TIME:
+					return new Codec("Object", "OffsetDateTime", "TIMESTAMP_WITH_TIMEZONE", true);
+				case OFFSET_TIME:
+				case OPTIONAL_OFFSET_TIME:
+					return new Codec("Object", "OffsetTime", "TIME_WITH_TIMEZONE", true);
+				case SHORT:
+				case OPTIONAL_SHORT:
+					return new Codec("Short", "Short", "short", "SMALLINT", "%s", "%s", true);
+				case UUID:
+				case OPTIONAL_UUID:
+					return new Codec("Object", "UUID", "OTHER", true);
+				default:
+					return new Codec("String", "String", "String", "VARCHAR", "%s", "%s", false);
+			}
+		}
+
+		private static Codec ofArray(PostgresType type) {
+			final String decoding = ArrayCodec.getDecoderOf(type, "(Object[]) %s.getArray()");
+			if (ArrayCodec.isPrimitive(type) || "String".equals(ArrayCodec.getElementClassOf(type))) {
+				return new Codec("Object", "Array", "java.sql.Array", "ARRAY", decoding, "%s", ArrayCodec.hasBinaryElements(type));
+			}
+			return new Codec("Array", "Array", "java.sql.Array", "ARRAY", decoding, "statement.getConnection().createArrayOf(\"" + ArrayCodec.getElementTypeNameOf(type) + "\", " + ArrayCodec.getBoxedArrayOf(type, "%s") + ')', ArrayCodec.hasBinaryElements(type));
+		}
+
+		private final String setter;
+		private final String getter;
+		private final String rawType;
+		private final String sqlType;
+		private final String decoding;
+		private final String encoding;
+		private final String objectClass;
+		private final boolean isBinary;
+
+		private Codec(String setter, String getter, String rawType, String sqlType, String decoding, String encoding, boolean isBinary) {
+			this.setter = setter;
+			this.getter = getter;
+			this.rawType = rawType;
+			this.sqlType = sqlType;
+			this.decoding = decoding;
+			this.encoding = encoding;
+			this.objectClass = null;
+			this.isBinary = isBinary;
+		}
+
+		private Codec(String setter, String objectClass, String sqlType, boolean isBinary) {
+			this.setter = setter;
+			this.getter = "Object";
+			this.rawType = objectClass;
+			this.sqlType = sqlType;
+			this.decoding = "%s";
+			this.encoding = "%s";
+			this.objectClass = objectClass;
+			this.isBinary = isBinary;
+		}
+
+		private boolean isPrimitive() {
+			return Character.isLowerCase(rawType.charAt(0)) && rawType.endsWith("[]") == false && rawType.indexOf('.') < 0;
+		}
+
+		private String getValue(String results, int offset) {
+			if (objectClass == null) {
+				return results + ".get" + getter + '(' + offset + ')';
+			}
+			return results + ".getObject(" + offset + ", " + objectClass + ".class)";
+		}
+
+		private String setValue(String statement, int offset, String value) {
+			return statement + ".set" + setter + '(' + offset + ", " + value + ')';
+		}
+
+		private String decode(String value) {
+			return String.format(decoding, value);
+		}
+
+		private String encode(String value) {
+			return String.format(encoding, value);
+		}
+
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.github.ryanholdren.typesafesql;
+
+import static com.github.ryanholdren.typesafesql.JavaClassWriter.LINE_BREAK;
+import static com.github.ryanholdren.typesafesql.ResultColumns.None.NONE;
+import com.google.common.base.Splitter;
+import static com.google.common.hash.Hashing.sha256;
+import java.io.File;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+class MetadataCache {
+
+	private static final String VERSION = "1";
+	private static final String PARAMETERS = "parameters";
+	private static final String RESULT_COLUMNS = "result columns";
+	private static final String NO_RESULT_COLUMNS = "no result columns";
+	private static final char SEPARATOR = '\t';
+
+	public static String getKeyOf(String sql, String searchPath, String fingerprintOfMigrations) {
+		return sha256()
+			.newHasher()
+			.putString(VERSION, UTF_8)
+			.putString(fingerprintOfMigrations, UTF_8)
+			.putString(String.valueOf(searchPath), UTF_8)
+			.putString(sql, UTF_8)
+			.hash()
+			.toString();
+	}
+
+	private final File directory;
+
+	public MetadataCache(File directory) {
+		this.directory = directory;
+	}
+
+	private Path getFileFor(String key) {
+		return new File(new File(directory, key.substring(0, 2)), key).toPath();
+	}
+
+	public QueryMetadata get(String key) throws IOException {
+		final Path file = getFileFor(key);
+		if (Files.isRegularFile(file) == false) {
+			return null;
+		}
+		try {
+			return parse(new String(Files.readAllBytes(file), UTF_8));
+		} catch (SQLException | RuntimeException exception) {
+			Files.deleteIfExists(file);
+			return null;
+		}
+	}
+
+	private static QueryMetadata parse(String contents) throws SQLException {
+		final Iterator<String> lines = Splitter.on(LINE_BREAK).omitEmptyStrings().split(contents).iterator();
+		if (PARAMETERS.equals(lines.next()) == false) {
+			throw new IllegalStateException("Expected parameters!");
+		}
+		final List<PostgresField> parameters = new ArrayList<>();
+		String line;
+		while ((line = lines.next()).indexOf(SEPARATOR) >= 0) {
+			parameters.add(parseField(line));
+		}
+		if (NO_RESULT_COLUMNS.equals(line)) {
+			return new QueryMetadata(Parameters.of(parameters.toArray(new PostgresField[0])), NONE);
+		}
+		if (RESULT_COLUMNS.equals(line) == false) {
+			throw new IllegalStateException("Expected result columns!");
+		}
+		final List<PostgresField> resultColumns = new ArrayList<>();
+		while (lines.hasNext()) {
+			resultColumns.add(parseField(lines.next()));
+		}
+		return new QueryMetadata(
+			Parameters.of(parameters.toArray(new PostgresField[0])),
+			ResultColumns.of(resultColumns.toArray(new PostgresField[0]))
+		);
+	}
+
+	private static PostgresField parseField(String line) throws SQLException {
+		final List<String> parts = Splitter.on(SEPARATOR).splitToList(line);
+		return PostgresField.from(parts.get(0), parts.get(1), Boolean.parseBoolean(parts.get(2)));
+	}
+
+	public void put(String key, QueryMetadata metadata) throws IOException {
+		final StringBuilder builder = new StringBuilder();
+		builder.append(PARAMETERS).append('\n');
+		for (final PostgresField parameter : metadata.getParameters()) {
+			append(builder, parameter);
+		}
+		final ResultColumns resultColumns = metadata.getResultColumns();
+		if (resultColumns == NONE) {
+			builder.append(NO_RESULT_COLUMNS).append('\n');
+		} else {
+			builder.append(RESULT_COLUMNS).append('\n');
+			for (final PostgresField resultColumn : resultColumns) {
+				append(builder, resultColumn);
+			}
+		}
+		final Path file = getFileFor(key);
+		Files.createDirectories(file.getParent());
+		final Path temporary = Files.createTempFile(file.getParent(), key, ".tmp");
+		try {
+			Files.write(temporary, builder.toString().getBytes(UTF_8));
+			Files.move(temporary, file, REPLACE_EXISTING, ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	private static void append(StringBuilder builder, PostgresField field) {
+		builder
+			.append(field.getName())
+			.append(SEPARATOR)
+			.append(field.getPostgresTypeName())
+			.append(SEPARATOR)
+			.append(field.isNullable())
+			.append('\n');
+	}
+
+}
@@ -0,0 +1,167 @@
+package com.github.ryanholdren.typesafesql;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+class MigrationSnapshots implements SharedPostgres.DatabaseInitializer {
+
+	private static final Logger LOGGER = Logging.getLogger(MigrationSnapshots.class);
+	private static final Object LOCK = new Object();
+	private static final String SNAPSHOT_PREFIX = "typesafesql_snapshot_";
+	private static final int NUMBER_OF_SNAPSHOTS_TO_KEEP = 8;
+	private static final char SEPARATOR = '\n';
+
+	private final Migrations migrations;
+	private final Consumer<DataSource> migrate;
+
+	public MigrationSnapshots(Migrations migrations, Consumer<DataSource> migrate) {
+		this.migrations = migrations;
+		this.migrate = migrate;
+	}
+
+	@Override
+	public void initialize(SharedPostgres.Lease postgres, String name) throws SQLException {
+		synchronized (LOCK) {
+			try (final Connection connection = postgres.getPostgresDatabase().getConnection()) {
+				createCatalogIn(connection);
+				final Snapshot snapshot = findNewestCompatibleSnapshotIn(connection);
+				if (snapshot == null) {
+					LOGGER.info("There is no snapshot compatible with these migrations, so migrating from scratch...");
+					execute(connection, "CREATE DATABASE \"" + name + '"');
+				} else {
+					LOGGER.info("Restoring snapshot '{}'...", snapshot.name);
+					execute(connection, "CREATE DATABASE \"" + name + "\" TEMPLATE \"" + snapshot.name + '"');
+					if (snapshot.fingerprint.equals(migrations.getFingerprint())) {
+						return;
+					}
+					LOGGER.info("Applying the {} migration(s) that are newer than the snapshot...", migrations.getVersionedChecksums().size() - snapshot.versionedChecksums.size());
+				}
+			}
+			migrate.accept(postgres.getDataSource(name));
+			try (final Connection connection = postgres.getPostgresDatabase().getConnection()) {
+				saveSnapshotOf(connection, name);
+				deleteOldSnapshotsIn(connection);
+			}
+		}
+	}
+
+	private static void createCatalogIn(Connection connection) throws SQLException {
+		execute(connection,
+			"CREATE TABLE IF NOT EXISTS typesafesql_snapshots (" +
+				"name TEXT PRIMARY KEY, " +
+				"fingerprint TEXT NOT NULL, " +
+				"placeholders TEXT NOT NULL, " +
+				"migrations TEXT NOT NULL, " +
+				"created TIMESTAMPTZ NOT NULL DEFAULT now()" +
+			")"
+		);
+	}
+
+	private Snapshot findNewestCompatibleSnapshotIn(Connection connection) throws SQLException {
+		final List<String> versionedChecksums = migrations.getVersionedChecksums();
+		Snapshot best = null;
+		try (final PreparedStatement statement = connection.prepareStatement(
+			"SELECT name, fingerprint, migrations FROM typesafesql_snapshots " +
+			"WHERE placeholders = ? AND name IN (SELECT datname FROM pg_database) " +
+			"ORDER BY created DESC"
+		)) {
+			statement.setString(1, migrations.getFingerprintOfPlaceholders());
+			try (final ResultSet results = statement.executeQuery()) {
+				while (results.next()) {
+					final Snapshot snapshot = new Snapshot(
+						results.getString(1),
+						results.getString(2),
+						Splitter.on(SEPARATOR).omitEmptyStrings().splitToList(results.getString(3))
+					);
+					if (snapshot.fingerprint.equals(migrations.getFingerprint())) {
+						return snapshot;
+					}
+					final int numberOfMigrations = snapshot.versionedChecksums.size();
+					if (numberOfMigrations > versionedChecksums.size()) {
+						continue;
+					}
+					if (versionedChecksums.subList(0, numberOfMigrations).equals(snapshot.versionedChecksums) == false) {
+						continue;
+					}
+					if (best == null || numberOfMigrations > best.versionedChecksums.size()) {
+						best = snapshot;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	private void saveSnapshotOf(Connection connection, String name) throws SQLException {
+		final String snapshotName = SNAPSHOT_PREFIX + migrations.getFingerprint().substring(0, 16);
+		LOGGER.info("Saving snapshot '{}'...", snapshotName);
+		execute(connection, "DROP DATABASE IF EXISTS \"" + snapshotName + '"');
+		execute(connection, "CREATE DATABASE \"" + snapshotName + "\" TEMPLATE \"" + name + '"');
+		try (final PreparedStatement statement = connection.prepareStatement(
+			"INSERT INTO typesafesql_snapshots (name, fingerprint, placeholders, migrations) VALUES (?, ?, ?, ?) " +
+			"ON CONFLICT (name) DO UPDATE SET " +
+				"fingerprint = excluded.fingerprint, " +
+				"placeholders = excluded.placeholders, " +
+				"migrations = excluded.migrations, " +
+				"created = now()"
+		)) {
+			statement.setString(1, snapshotName);
+			statement.setString(2, migrations.getFingerprint());
+			statement.setString(3, migrations.getFingerprintOfPlaceholders());
+			statement.setString(4, Joiner.on(SEPARATOR).join(migrations.getVersionedChecksums()));
+			statement.executeUpdate();
+		}
+	}
+
+	private static void deleteOldSnapshotsIn(Connection connection) throws SQLException {
+		final List<String> names = new ArrayList<>();
+		try (
+			final Statement statement = connection.createStatement();
+			final ResultSet results = statement.executeQuery("SELECT name FROM typesafesql_snapshots ORDER BY created DESC OFFSET " + NUMBER_OF_SNAPSHOTS_TO_KEEP)
+		) {
+			while (results.next()) {
+				names.add(results.getString(1));
+			}
+		}
+		for (final String name : names) {
+			LOGGER.info("Deleting old snapshot '{}'...", name);
+			execute(connection, "DROP DATABASE IF EXISTS \"" + name + '"');
+			try (final PreparedStatement statement = connection.prepareStatement("DELETE FROM typesafesql_snapshots WHERE name = ?")) {
+				statement.setString(1, name);
+				statement.executeUpdate();
+			}
+		}
+	}
+
+	private static void execute(Connection connection, String sql) throws SQLException {
+		try (final Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+
+	private static class Snapshot {
+
+		private final String name;
+		private final String fingerprint;
+		private final List<String> versionedChecksums;
+
+		private Snapshot(String name, String fingerprint, List<String> versionedChecksums) {
+			this.name = name;
+			this.fingerprint = fingerprint;
+			this.versionedChecksums = versionedChecksums;
+		}
+
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.github.ryanholdren.typesafesql;
+
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+
+class MigrationTimer implements Callback {
+
+	private final Timings timings;
+	private long startOfMigration;
+
+	public MigrationTimer(Timings timings) {
+		this.timings = timings;
+	}
+
+	@Override
+	public boolean supports(Event event, Context context) {
+		switch (event) {
+			case BEFORE_EACH_MIGRATE:
+			case AFTER_EACH_MIGRATE:
+			case AFTER_EACH_MIGRATE_ERROR:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	@Override
+	public boolean canHandleInTransaction(Event event, Context context) {
+		return true;
+	}
+
+	@Override
+	public void handle(Event event, Context context) {
+		if (event == Event.BEFORE_EACH_MIGRATE) {
+			startOfMigration = Timings.now();
+			return;
+		}
+		final MigrationInfo migration = context.getMigrationInfo();
+		timings.recordMigration(migration == null ? "unknown" : migration.getScript(), startOfMigration);
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.github.ryanholdren.typesafesql;
+
+import com.google.common.hash.Hasher;
+import static com.google.common.hash.Hashing.sha256;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.ArrayList;
+import static java.util.Collections.unmodifiableList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static java.util.regex.Pattern.compile;
+import org.gradle.api.Project;
+
+class Migrations {
+
+	private static final Pattern VERSIONED_MIGRATION = compile("^V([0-9]+(?:[._][0-9]+)*)__.*");
+
+	public static Migrations from(Project project, Iterable<File> directories, Map<String, String> placeholders) throws IOException {
+		final TreeMap<String, File> files = new TreeMap<>();
+		for (final File directory : directories) {
+			project.fileTree(directory).visit(details -> {
+				if (details.isDirectory() == false) {
+					files.put(details.getPath(), details.getFile());
+				}
+			});
+		}
+		final Hasher hasher = sha256().newHasher();
+		final TreeMap<List<BigInteger>, String> versioned = new TreeMap<>(Migrations::compareVersions);
+		for (final Map.Entry<String, File> file : files.entrySet()) {
+			final byte[] contents = Files.toByteArray(file.getValue());
+			hasher.putString(file.getKey(), UTF_8);
+			hasher.putBytes(contents);
+			final Matcher matcher = VERSIONED_MIGRATION.matcher(file.getValue().getName());
+			if (matcher.matches()) {
+				final String version = matcher.group(1);
+				versioned.put(parseVersion(version), version + ':' + sha256().hashBytes(contents));
+			}
+		}
+		final Hasher placeholdersHasher = sha256().newHasher();
+		Fingerprints.putAll(placeholdersHasher, placeholders);
+		final String fingerprintOfPlaceholders = placeholdersHasher.hash().toString();
+		hasher.putString(fingerprintOfPlaceholders, UTF_8);
+		return new Migrations(hasher.hash().toString(), fingerprintOfPlaceholders, new ArrayList<>(versioned.values()));
+	}
+
+	private static List<BigInteger> parseVersion(String version) {
+		final List<BigInteger> parts = new ArrayList<>();
+		for (final String part : version.split("[._]")) {
+			parts.add(new BigInteger(part));
+		}
+		return parts;
+	}
+
+	private static int compareVersions(List<BigInteger> left, List<BigInteger> right) {
+		final int length = Math.max(left.size(), right.size());
+		for (int index = 0; index < length; index ++) {
+			final BigInteger leftPart = index < left.size() ? left.get(index) : BigInteger.ZERO;
+			final BigInteger rightPart = index < right.size() ? right.get(index) : BigInteger.ZERO;
+			final int comparison = leftPart.compareTo(rightPart);
+			if (comparison != 0) {
+				return comparison;
+			}
+		}
+		return 0;
+	}
+
+	private final String fingerprint;
+	private final String fingerprintOfPlaceholders;
+	private final List<String> versionedChecksums;
+
+	private Migrations(String fingerprint, String fingerprintOfPlaceholders, List<String> versionedChecksums) {
+		this.fingerprint = fingerprint;
+		this.fingerprintOfPlaceholders = fingerprintOfPlaceholders;
+		this.versionedChecksums = unmodifiableList(versionedChecksums);
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public String getFingerprintOfPlaceholders() {
+		return fingerprintOfPlaceholders;
+	}
+
+	public List<String> getVersionedChecksums() {
+		return versionedChecksums;
+	}
+
+}
@@ -17,11 +17,15 @@ public class Parameters implements Iterable<PostgresField> {
 			final int offset = index + 1;
 			final String postgresType = parameters.getParameterTypeName(offset);
 			final boolean isNullable = parameters.isNullable(offset) == parameterNullable;
-			fields[index] = new PostgresField(names.get(index), PostgresType.from(postgresType, isNullable));
+			fields[index] = PostgresField.from(names.get(index), postgresType, isNullable);
 		}
 		return new Parameters(fields);
 	}
 
+	public static Parameters of(PostgresField ... fields) {
+		return new Parameters(fields.clone());
+	}
+
 	private final PostgresField[] fields;
 
 	private Parameters(PostgresField[] fields) {
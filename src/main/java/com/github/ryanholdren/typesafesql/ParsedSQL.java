@@ -0,0 +1,373 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.util.ArrayList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class ParsedSQL {
+
+	public static ParsedSQL parse(String sql) {
+		return new Lexer(sql).lex();
+	}
+
+	private final String sql;
+	private final String jdbcSql;
+	private final List<String> parameterNames;
+	private final List<Segment> segments;
+	private final Map<String, List<String>> directives;
+
+	private ParsedSQL(String sql, String jdbcSql, List<String> parameterNames, List<Segment> segments, Map<String, List<String>> directives) {
+		this.sql = sql;
+		this.jdbcSql = jdbcSql;
+		this.parameterNames = unmodifiableList(parameterNames);
+		this.segments = unmodifiableList(segments);
+		this.directives = unmodifiableMap(directives);
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public String getJdbcSql() {
+		return jdbcSql;
+	}
+
+	public List<String> getParameterNames() {
+		return parameterNames;
+	}
+
+	public boolean hasParameters() {
+		return parameterNames.isEmpty() == false;
+	}
+
+	public List<Segment> getSegments() {
+		return segments;
+	}
+
+	public List<String> getDirectives(String name) {
+		return directives.getOrDefault(name, emptyList());
+	}
+
+	public Optional<String> getDirective(String name) {
+		final List<String> values = getDirectives(name);
+		if (values.isEmpty()) {
+			return Optional.empty();
+		}
+		return Optional.of(values.get(0));
+	}
+
+	@Override
+	public String toString() {
+		return sql;
+	}
+
+	public static class Segment {
+
+		private final String text;
+		private final int parameterIndex;
+
+		private Segment(String text, int parameterIndex) {
+			this.text = text;
+			this.parameterIndex = parameterIndex;
+		}
+
+		public boolean isParameter() {
+			return parameterIndex >= 0;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		public int getParameterIndex() {
+			return parameterIndex;
+		}
+
+	}
+
+	private enum State {
+		CODE,
+		LINE_COMMENT,
+		BLOCK_COMMENT,
+		STRING,
+		ESCAPE_STRING,
+		QUOTED_IDENTIFIER,
+		DOLLAR_QUOTED_STRING
+	}
+
+	private static class Lexer {
+
+		private static final String DIRECTIVE_PREFIX = "-- ";
+		private static final String DIRECTIVE_SEPARATOR = ": ";
+
+		private final String sql;
+		private final int length;
+		private final StringBuilder jdbcSql;
+		private final List<String> parameterNames = new ArrayList<>();
+		private final List<Segment> segments = new ArrayList<>();
+		private final Map<String, List<String>> directives = new LinkedHashMap<>();
+
+		private State state = State.CODE;
+		private int depthOfBlockComment;
+		private String dollarQuoteTag;
+
+		private int startOfLine;
+		private State stateAtStartOfLine;
+		private final StringBuilder text = new StringBuilder();
+		private boolean isSpacePending;
+
+		private Lexer(String sql) {
+			this.sql = sql;
+			this.length = sql.length();
+			this.jdbcSql = new StringBuilder(length);
+		}
+
+		private ParsedSQL lex() {
+			startLine(0);
+			int index = 0;
+			while (index < length) {
+				final char character = sql.charAt(index);
+				if (character == '\n') {
+					endLine(index);
+					if (isQuoted()) {
+						append(index, 1);
+					} else {
+						skip(index, 1);
+					}
+					index ++;
+					startLine(index);
+					continue;
+				}
+				if (state == State.CODE) {
+					index = lexCode(index, character);
+				} else {
+					index = lexQuoted(index, character);
+				}
+			}
+			endLine(length);
+			if (text.length() > 0 && text.charAt(text.length() - 1) == ';') {
+				text.setLength(text.length() - 1);
+			}
+			flushText();
+			return new ParsedSQL(sql, jdbcSql.toString(), parameterNames, segments, directives);
+		}
+
+		private int lexCode(int index, char character) {
+			if (Character.isWhitespace(character)) {
+				return skip(index, 1);
+			}
+			final char next = index + 1 < length ? sql.charAt(index + 1) : 0;
+			if (character == '-' && next == '-') {
+				state = State.LINE_COMMENT;
+				return skip(index, 2);
+			}
+			if (character == '/' && next == '*') {
+				state = State.BLOCK_COMMENT;
+				depthOfBlockComment = 1;
+				return skip(index, 2);
+			}
+			if (character == '\'') {
+				if (index > 0 && (sql.charAt(index - 1) == 'E' || sql.charAt(index - 1) == 'e') && (index < 2 || isIdentifierPart(sql.charAt(index - 2)) == false)) {
+					state = State.ESCAPE_STRING;
+				} else {
+					state = State.STRING;
+				}
+				return append(index, 1);
+			}
+			if (character == '"') {
+				state = State.QUOTED_IDENTIFIER;
+				return append(index, 1);
+			}
+			if (character == '$' && (index == 0 || isIdentifierPart(sql.charAt(index - 1)) == false)) {
+				int end = index + 1;
+				while (end < length && isIdentifierPart(sql.charAt(end)) && sql.charAt(end) != '$') {
+					end ++;
+				}
+				if (end < length && sql.charAt(end) == '$' && (end == index + 1 || Character.isDigit(next) == false)) {
+					dollarQuoteTag = sql.substring(index, end + 1);
+					state = State.DOLLAR_QUOTED_STRING;
+					return append(index, dollarQuoteTag.length());
+				}
+				return append(index, 1);
+			}
+			if (character == ':') {
+				if (next == ':') {
+					return append(index, 2);
+				}
+				if (isStartOfParameter(index, next)) {
+					int end = index + 2;
+					while (end < length && isLetterOrDigit(sql.charAt(end))) {
+						end ++;
+					}
+					addParameter(sql.substring(index + 1, end));
+					return end;
+				}
+			}
+			return append(index, 1);
+		}
+
+		private boolean isStartOfParameter(int index, char next) {
+			if (next < 'a' || next > 'z') {
+				return false;
+			}
+			if (index == 0) {
+				return true;
+			}
+			final char previous = sql.charAt(index - 1);
+			return previous == '(' || previous == ',' || Character.isWhitespace(previous);
+		}
+
+		private int lexQuoted(int index, char character) {
+			final char next = index + 1 < length ? sql.charAt(index + 1) : 0;
+			switch (state) {
+				case LINE_COMMENT:
+					return skip(index, 1);
+				case BLOCK_COMMENT:
+					if (character == '/' && next == '*') {
+						depthOfBlockComment ++;
+						return skip(index, 2);
+					}
+					if (character == '*' && next == '/') {
+						depthOfBlockComment --;
+						if (depthOfBlockComment == 0) {
+							state = State.CODE;
+						}
+						return skip(index, 2);
+					}
+					return skip(index, 1);
+				case STRING:
+				case ESCAPE_STRING:
+					if (state == State.ESCAPE_STRING && character == '\\' && next != '\n') {
+						return append(index, 2);
+					}
+					if (character == '\'') {
+						if (next == '\'') {
+							return append(index, 2);
+						}
+						state = State.CODE;
+					}
+					return append(index, 1);
+				case QUOTED_IDENTIFIER:
+					if (character == '"') {
+						if (next == '"') {
+							return append(index, 2);
+						}
+						state = State.CODE;
+					}
+					return append(index, 1);
+				case DOLLAR_QUOTED_STRING:
+					if (character == '$' && sql.startsWith(dollarQuoteTag, index)) {
+						state = State.CODE;
+						return append(index, dollarQuoteTag.length());
+					}
+					return append(index, 1);
+				default:
+					throw new IllegalStateException("Unexpected state: " + state);
+			}
+		}
+
+		private boolean isQuoted() {
+			switch (state) {
+				case STRING:
+				case ESCAPE_STRING:
+				case QUOTED_IDENTIFIER:
+				case DOLLAR_QUOTED_STRING:
+					return true;
+				default:
+					return false;
+			}
+		}
+
+		private int append(int index, int count) {
+			final int end = Math.min(index + count, length);
+			appendPendingSpace(sql.charAt(index));
+			text.append(sql, index, end);
+			jdbcSql.append(sql, index, end);
+			return end;
+		}
+
+		private int skip(int index, int count) {
+			final int end = Math.min(index + count, length);
+			jdbcSql.append(sql, index, end);
+			isSpacePending = true;
+			return end;
+		}
+
+		private void appendPendingSpace(char next) {
+			if (isSpacePending) {
+				if (isSpaceNeededBefore(next)) {
+					text.append(' ');
+				}
+				isSpacePending = false;
+			}
+		}
+
+		private boolean isSpaceNeededBefore(char next) {
+			if (next == ')' || next == ',' || next == ';') {
+				return false;
+			}
+			if (text.length() == 0) {
+				return segments.isEmpty() == false;
+			}
+			return text.charAt(text.length() - 1) != '(';
+		}
+
+		private void addParameter(String name) {
+			appendPendingSpace(':');
+			flushText();
+			segments.add(new Segment(name, parameterNames.size()));
+			parameterNames.add(name);
+			jdbcSql.append('?');
+		}
+
+		private void flushText() {
+			if (text.length() > 0) {
+				segments.add(new Segment(text.toString(), -1));
+				text.setLength(0);
+			}
+		}
+
+		private void startLine(int index) {
+			startOfLine = index;
+			stateAtStartOfLine = state;
+		}
+
+		private void endLine(int index) {
+			final String line = sql.substring(startOfLine, index);
+			if (stateAtStartOfLine == State.CODE && line.startsWith(DIRECTIVE_PREFIX)) {
+				final int indexOfSeparator = line.indexOf(DIRECTIVE_SEPARATOR);
+				if (indexOfSeparator > DIRECTIVE_PREFIX.length()) {
+					final String name = line.substring(DIRECTIVE_PREFIX.length(), indexOfSeparator);
+					final String value = trimEnd(line.substring(indexOfSeparator + DIRECTIVE_SEPARATOR.length()));
+					directives.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+				}
+			}
+			if (state == State.LINE_COMMENT) {
+				state = State.CODE;
+			}
+		}
+
+		private static String trimEnd(CharSequence text) {
+			int end = text.length();
+			while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+				end --;
+			}
+			return text.subSequence(0, end).toString();
+		}
+
+		private static boolean isIdentifierPart(char character) {
+			return character == '_' || character == '$' || Character.isLetterOrDigit(character);
+		}
+
+		private static boolean isLetterOrDigit(char character) {
+			return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || (character >= '0' && character <= '9');
+		}
+
+	}
+
+}
@@ -0,0 +1,141 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.io.IOException;
+
+class PgAsyncCodec {
+
+	public static String getVariableName(int index) {
+		return "column" + index;
+	}
+
+	public static void writeDecoderTo(AutoIndentingWriter writer, PostgresField column, int index) throws IOException {
+		final Decoder decoder = Decoder.of(column.getType());
+		final String variable = getVariableName(index);
+		final String value = "row." + decoder.getter + '(' + index + decoder.argument + ')';
+		if (column.isNullable()) {
+			final String javaType = column.getJavaType();
+			final int indexOfTypeArgument = javaType.indexOf('<');
+			final String wrapper = indexOfTypeArgument < 0 ? javaType : javaType.substring(0, indexOfTypeArgument);
+			final String raw = variable + "Value";
+			writer.writeLine("final ", decoder.rawType, ' ', raw, " = ", value, ';');
+			writer.writeLine("final ", javaType, ' ', variable, " = ", raw, " == null ? ", wrapper, ".empty() : ", wrapper, ".of(", decoder.convert(raw), ");");
+		} else {
+			writer.writeLine("final ", column.getJavaType(), ' ', variable, " = ", decoder.convert(value), ';');
+		}
+	}
+
+	public static void writeColumnarDecoderTo(AutoIndentingWriter writer, PostgresField column, int index) throws IOException {
+		if (column.isNullable() == false) {
+			writeDecoderTo(writer, column, index);
+			return;
+		}
+		final Decoder decoder = Decoder.of(column.getType());
+		final String variable = getVariableName(index);
+		final String raw = variable + "Value";
+		final String value = "row." + decoder.getter + '(' + index + decoder.argument + ')';
+		ColumnarCodec.writeNullableDecoderTo(writer, column, variable, decoder.rawType, raw, value, raw + " == null", decoder.convert(raw));
+	}
+
+	public static String getEncoderOf(PostgresField parameter, String value) {
+		final PostgresType type = parameter.getType();
+		if (type.isArray() && (ArrayCodec.isPrimitive(type) || ArrayCodec.isList(type))) {
+			if (parameter.isNullable()) {
+				return value + ".map(array -> " + ArrayCodec.getBoxedArrayOf(type, "array") + ").orElse(null)";
+			}
+			return ArrayCodec.getBoxedArrayOf(type, value);
+		}
+		switch (type) {
+			case OPTIONAL_INTEGER:
+				return value + ".isPresent() ? (Integer) " + value + ".getAsInt() : null";
+			case OPTIONAL_LONG:
+				return value + ".isPresent() ? (Long) " + value + ".getAsLong() : null";
+			case OPTIONAL_DOUBLE:
+				return value + ".isPresent() ? (Double) " + value + ".getAsDouble() : null";
+			default:
+				if (parameter.isNullable()) {
+					return value + ".orElse(null)";
+				}
+				return value;
+		}
+	}
+
+	private static class Decoder {
+
+		private static Decoder of(PostgresType type) {
+			if (type.isArray()) {
+				return new Decoder("getArray", ", Object[].class", "Object[]", ArrayCodec.getDecoderOf(type, "%s"));
+			}
+			switch (type) {
+				case BIG_DECMIAL:
+				case OPTIONAL_BIG_DECMIAL:
+					return new Decoder("getBigDecimal", "BigDecimal", "%s");
+				case BOOLEAN:
+				case OPTIONAL_BOOLEAN:
+					return new Decoder("getBoolean", "Boolean", "%s");
+				case BYTE_ARRAY:
+				case OPTIONAL_BYTE_ARRAY:
+					return new Decoder("getBytes", "byte[]", "%s");
+				case CHARACTER:
+				case OPTIONAL_CHARACTER:
+					return new Decoder("getChar", "Character", "%s");
+				case DOUBLE:
+				case OPTIONAL_DOUBLE:
+					return new Decoder("getDouble", "Double", "%s");
+				case FLOAT:
+				case OPTIONAL_FLOAT:
+					return new Decoder("getDouble", "Double", "%s.floatValue()");
+				case INTEGER:
+				case OPTIONAL_INTEGER:
+					return new Decoder("getInt", "Integer", "%s");
+				case LOCAL_DATE:
+				case OPTIONAL_LOCAL_DATE:
+					return new Decoder("getDate", "java.sql.Date", "%s.toLocalDate()");
+				case LOCAL_DATE_TIME:
+				case OPTIONAL_LOCAL_DATE_TIME:
+					return new Decoder("getTimestamp", "java.sql.Timestamp", "%s.toLocalDateTime()");
+				case LOCAL_TIME:
+				case OPTIONAL_LOCAL_TIME:
+					return new Decoder("getTime", "java.sql.Time", "%s.toLocalTime()");
+				case LONG:
+				case OPTIONAL_LONG:
+					return new Decoder("getLong", "Long", "%s");
+				case OFFSET_DATE_TIME:
+				case OPTIONAL_OFFSET_DATE_TIME:
+					return new Decoder("getTimestamp", "java.sql.Timestamp", "%s.toInstant().atOffset(java.time.ZoneOffset.UTC)");
+				case OFFSET_TIME:
+				case OPTIONAL_OFFSET_TIME:
+					return new Decoder("getTime", "java.sql.Time", "%s.toLocalTime().atOffset(java.time.ZoneOffset.UTC)");
+				case SHORT:
+				case OPTIONAL_SHORT:
+					return new Decoder("getShort", "Short", "%s");
+				case UUID:
+				case OPTIONAL_UUID:
+					return new Decoder("getString", "String", "UUID.fromString(%s)");
+				default:
+					return new Decoder("getString", "String", "%s");
+			}
+		}
+
+		private final String getter;
+		private final String argument;
+		private final String rawType;
+		private final String conversion;
+
+		private Decoder(String getter, String rawType, String conversion) {
+			this(getter, "", rawType, conversion);
+		}
+
+		private Decoder(String getter, String argument, String rawType, String conversion) {
+			this.getter = getter;
+			this.argument = argument;
+			this.rawType = rawType;
+			this.conversion = conversion;
+		}
+
+		private String convert(String value) {
+			return String.format(conversion, value);
+		}
+
+	}
+
+}
@@ -1,15 +1,24 @@
 package com.github.ryanholdren.typesafesql;
 
+import java.sql.SQLException;
 import java.util.Objects;
 import java.util.Set;
 
 public class PostgresField {
 
+	public static PostgresField from(String name, String postgresTypeName, boolean isNullable) throws SQLException {
+		return new PostgresField(name, postgresTypeName, isNullable, PostgresType.from(postgresTypeName, isNullable));
+	}
+
 	private final String name;
+	private final String postgresTypeName;
+	private final boolean isNullable;
 	private final PostgresType type;
 
-	public PostgresField(String name, PostgresType type) {
+	private PostgresField(String name, String postgresTypeName, boolean isNullable, PostgresType type) {
 		this.name = name;
+		this.postgresTypeName = postgresTypeName;
+		this.isNullable = isNullable;
 		this.type = type;
 	}
 
@@ -17,6 +26,14 @@ public class PostgresField {
 		return name;
 	}
 
+	public String getPostgresTypeName() {
+		return postgresTypeName;
+	}
+
+	public boolean isNullable() {
+		return isNullable;
+	}
+
 	public PostgresType getType() {
 		return type;
 	}
@@ -7,12 +7,14 @@ import java.util.Set;
 public enum PostgresType {
 
 	BIG_DECMIAL("BigDecimal", "java.math.BigDecimal"),
+	BIG_DECMIAL_LIST("List<BigDecimal>", "java.util.List", "java.math.BigDecimal"),
 	BOOLEAN("boolean") {
 		@Override
 		public String getBoxedJavaType() {
 			return "Boolean";
 		}
 	},
+	BOOLEAN_LIST("List<Boolean>", "java.util.List"),
 	BYTE_ARRAY("byte[]"),
 	CHARACTER("char") {
 		@Override
@@ -26,20 +28,25 @@ public enum PostgresType {
 			return "Double";
 		}
 	},
+	DOUBLE_ARRAY("double[]"),
 	FLOAT("float") {
 		@Override
 		public String getBoxedJavaType() {
 			return "Float";
 		}
 	},
+	FLOAT_LIST("List<Float>", "java.util.List"),
 	INTEGER("int") {
 		@Override
 		public String getBoxedJavaType() {
 			return "Integer";
 		}
 	},
+	INTEGER_ARRAY("int[]"),
 	LOCAL_DATE("LocalDate", "java.time.LocalDate"),
+	LOCAL_DATE_LIST("List<LocalDate>", "java.util.List", "java.time.LocalDate"),
 	LOCAL_DATE_TIME("LocalDateTime", "java.time.LocalDateTime"),
+	LOCAL_DATE_TIME_LIST("List<LocalDateTime>", "java.util.List", "java.time.LocalDateTime"),
 	LOCAL_TIME("LocalTime", "java.time.LocalTime"),
 	LONG("long") {
 		@Override
@@ -47,32 +54,49 @@ public enum PostgresType {
 			return "Long";
 		}
 	},
+	LONG_ARRAY("long[]"),
 	OFFSET_DATE_TIME("OffsetDateTime", "java.time.OffsetDateTime"),
+	OFFSET_DATE_TIME_LIST("List<OffsetDateTime>", "java.util.List", "java.time.OffsetDateTime"),
 	OFFSET_TIME("OffsetTime", "java.time.OffsetTime"),
 	OPTIONAL_BIG_DECMIAL("Optional<BigDecimal>", "java.util.Optional", "java.math.BigDecimal"),
+	OPTIONAL_BIG_DECMIAL_LIST("Optional<List<BigDecimal>>", "java.util.Optional", "java.util.List", "java.math.BigDecimal"),
 	OPTIONAL_BOOLEAN("Optional<Boolean>", "java.util.Optional"),
+	OPTIONAL_BOOLEAN_LIST("Optional<List<Boolean>>", "java.util.Optional", "java.util.List"),
 	OPTIONAL_BYTE_ARRAY("Optional<byte[]>", "java.util.Optional"),
 	OPTIONAL_CHARACTER("Optional<Character>", "java.util.Optional"),
 	OPTIONAL_DOUBLE("OptionalDouble", "java.util.OptionalDouble"),
+	OPTIONAL_DOUBLE_ARRAY("Optional<double[]>", "java.util.Optional"),
 	OPTIONAL_FLOAT("Optional<Float>", "java.util.Optional"),
+	OPTIONAL_FLOAT_LIST("Optional<List<Float>>", "java.util.Optional", "java.util.List"),
 	OPTIONAL_INTEGER("OptionalInt", "java.util.OptionalInt"),
+	OPTIONAL_INTEGER_ARRAY("Optional<int[]>", "java.util.Optional"),
 	OPTIONAL_LOCAL_DATE("Optional<LocalDate>", "java.util.Optional", "java.time.LocalDate"),
+	OPTIONAL_LOCAL_DATE_LIST("Optional<List<LocalDate>>", "java.util.Optional", "java.util.List", "java.time.LocalDate"),
 	OPTIONAL_LOCAL_DATE_TIME("Optional<LocalDateTime>", "java.util.Optional", "java.time.LocalDateTime"),
+	OPTIONAL_LOCAL_DATE_TIME_LIST("Optional<List<LocalDateTime>>", "java.util.Optional", "java.util.List", "java.time.LocalDateTime"),
 	OPTIONAL_LOCAL_TIME("Optional<LocalTime>", "java.util.Optional", "java.time.LocalTime"),
 	OPTIONAL_LONG("OptionalLong", "java.util.OptionalLong"),
+	OPTIONAL_LONG_ARRAY("Optional<long[]>", "java.util.Optional"),
 	OPTIONAL_OFFSET_DATE_TIME("Optional<OffsetDateTime>", "java.util.Optional", "java.time.OffsetDateTime"),
+	OPTIONAL_OFFSET_DATE_TIME_LIST("Optional<List<OffsetDateTime>>", "java.util.Optional", "java.util.List", "java.time.OffsetDateTime"),
 	OPTIONAL_OFFSET_TIME("Optional<OffsetTime>", "java.util.Optional", "java.time.OffsetTime"),
 	OPTIONAL_SHORT("Optional<Short>", "java.util.Optional"),
+	OPTIONAL_SHORT_LIST("Optional<List<Short>>", "java.util.Optional", "java.util.List"),
 	OPTIONAL_STRING("Optional<String>", "java.util.Optional"),
+	OPTIONAL_STRING_ARRAY("Optional<String[]>", "java.util.Optional"),
 	OPTIONAL_UUID("Optional<UUID>", "java.util.Optional", "java.util.UUID"),
+	OPTIONAL_UUID_ARRAY("Optional<UUID[]>", "java.util.Optional", "java.util.UUID"),
 	SHORT("short") {
 		@Override
 		public String getBoxedJavaType() {
 			return "Short";
 		}
 	},
+	SHORT_LIST("List<Short>", "java.util.List"),
 	STRING("String"),
-	UUID("UUID", "java.util.UUID");
+	STRING_ARRAY("String[]"),
+	UUID("UUID", "java.util.UUID"),
+	UUID_ARRAY("UUID[]", "java.util.UUID");
 
 	public static PostgresType from(String postgresType, boolean isNullable) throws SQLException {
 		switch (postgresType) {
@@ -174,6 +198,81 @@ public enum PostgresType {
 				} else {
 					return BYTE_ARRAY;
 				}
+			case "_bool":
+				if (isNullable) {
+					return OPTIONAL_BOOLEAN_LIST;
+				} else {
+					return BOOLEAN_LIST;
+				}
+			case "_int2":
+				if (isNullable) {
+					return OPTIONAL_SHORT_LIST;
+				} else {
+					return SHORT_LIST;
+				}
+			case "_int4":
+				if (isNullable) {
+					return OPTIONAL_INTEGER_ARRAY;
+				} else {
+					return INTEGER_ARRAY;
+				}
+			case "_int8":
+				if (isNullable) {
+					return OPTIONAL_LONG_ARRAY;
+				} else {
+					return LONG_ARRAY;
+				}
+			case "_float4":
+				if (isNullable) {
+					return OPTIONAL_FLOAT_LIST;
+				} else {
+					return FLOAT_LIST;
+				}
+			case "_float8":
+				if (isNullable) {
+					return OPTIONAL_DOUBLE_ARRAY;
+				} else {
+					return DOUBLE_ARRAY;
+				}
+			case "_numeric":
+				if (isNullable) {
+					return OPTIONAL_BIG_DECMIAL_LIST;
+				} else {
+					return BIG_DECMIAL_LIST;
+				}
+			case "_text":
+			case "_name":
+			case "_varchar":
+			case "_bpchar":
+				if (isNullable) {
+					return OPTIONAL_STRING_ARRAY;
+				} else {
+					return STRING_ARRAY;
+				}
+			case "_uuid":
+				if (isNullable) {
+					return OPTIONAL_UUID_ARRAY;
+				} else {
+					return UUID_ARRAY;
+				}
+			case "_date":
+				if (isNullable) {
+					return OPTIONAL_LOCAL_DATE_LIST;
+				} else {
+					return LOCAL_DATE_LIST;
+				}
+			case "_timestamp":
+				if (isNullable) {
+					return OPTIONAL_LOCAL_DATE_TIME_LIST;
+				} else {
+					return LOCAL_DATE_TIME_LIST;
+				}
+			case "_timestamptz":
+				if (isNullable) {
+					return OPTIONAL_OFFSET_DATE_TIME_LIST;
+				} else {
+					return OFFSET_DATE_TIME_LIST;
+				}
 		}
 		if (isNullable) {
 			return OPTIONAL_STRING;
@@ -202,4 +301,36 @@ public enum PostgresType {
 		return imports;
 	}
 
+	public boolean isArray() {
+		switch (this) {
+			case BIG_DECMIAL_LIST:
+			case BOOLEAN_LIST:
+			case DOUBLE_ARRAY:
+			case FLOAT_LIST:
+			case INTEGER_ARRAY:
+			case LOCAL_DATE_LIST:
+			case LOCAL_DATE_TIME_LIST:
+			case LONG_ARRAY:
+			case OFFSET_DATE_TIME_LIST:
+			case OPTIONAL_BIG_DECMIAL_LIST:
+			case OPTIONAL_BOOLEAN_LIST:
+			case OPTIONAL_DOUBLE_ARRAY:
+			case OPTIONAL_FLOAT_LIST:
+			case OPTIONAL_INTEGER_ARRAY:
+			case OPTIONAL_LOCAL_DATE_LIST:
+			case OPTIONAL_LOCAL_DATE_TIME_LIST:
+			case OPTIONAL_LONG_ARRAY:
+			case OPTIONAL_OFFSET_DATE_TIME_LIST:
+			case OPTIONAL_SHORT_LIST:
+			case OPTIONAL_STRING_ARRAY:
+			case OPTIONAL_UUID_ARRAY:
+			case SHORT_LIST:
+			case STRING_ARRAY:
+			case UUID_ARRAY:
+				return true;
+			default:
+				return false;
+		}
+	}
+
 }
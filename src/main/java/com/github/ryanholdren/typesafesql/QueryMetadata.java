@@ -0,0 +1,32 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+class QueryMetadata {
+
+	public static QueryMetadata from(List<String> parameterNames, PreparedStatement statement) throws SQLException {
+		return new QueryMetadata(
+			Parameters.from(parameterNames, statement.getParameterMetaData()),
+			ResultColumns.from(statement.getMetaData())
+		);
+	}
+
+	private final Parameters parameters;
+	private final ResultColumns resultColumns;
+
+	public QueryMetadata(Parameters parameters, ResultColumns resultColumns) {
+		this.parameters = parameters;
+		this.resultColumns = resultColumns;
+	}
+
+	public Parameters getParameters() {
+		return parameters;
+	}
+
+	public ResultColumns getResultColumns() {
+		return resultColumns;
+	}
+
+}
@@ -0,0 +1,292 @@
+package com.github.ryanholdren.typesafesql;
+
+import groovy.json.JsonSlurper;
+import static groovy.json.JsonOutput.prettyPrint;
+import static groovy.json.JsonOutput.toJson;
+import java.io.File;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.sql.DataSource;
+import org.gradle.api.logging.Logger;
+
+class QueryPlans {
+
+	private static final String EXPLAIN = "EXPLAIN (FORMAT JSON) ";
+	private static final String NUMBER_OF_ROWS = "SELECT c.reltuples FROM pg_class c WHERE c.relname = ? AND pg_table_is_visible(c.oid)";
+	private static final String QUERIES = "queries";
+	private static final String TOTAL_COST = "totalCost";
+	private static final String SHAPE = "shape";
+	private static final String SEQUENTIAL_SCANS = "sequentialScans";
+	private static final String HINTS = "hints";
+	private static final String ERROR = "error";
+
+	public static String getRepresentativeValueOf(PostgresField parameter) {
+		if (parameter.getPostgresTypeName().startsWith("_")) {
+			return "{}";
+		}
+		switch (parameter.getPostgresTypeName()) {
+			case "int2":
+			case "int4":
+			case "int8":
+			case "float4":
+			case "float8":
+			case "numeric":
+			case "oid":
+				return "1";
+			case "bool":
+				return "true";
+			case "date":
+				return "2000-01-01";
+			case "timestamp":
+			case "timestamptz":
+				return "2000-01-01 00:00:00";
+			case "time":
+			case "timetz":
+				return "00:00:00";
+			case "interval":
+				return "1 day";
+			case "uuid":
+				return "00000000-0000-0000-0000-000000000001";
+			case "bytea":
+				return "\\x00";
+			case "json":
+			case "jsonb":
+				return "{}";
+			default:
+				return "a";
+		}
+	}
+
+	private final long minimumRowsOfLargeTable;
+	private final double costTolerance;
+	private final List<Query> queries = new ArrayList<>();
+	private final Map<String, Map<String, Object>> plansByPath = new TreeMap<>();
+
+	public QueryPlans(long minimumRowsOfLargeTable, double costTolerance) {
+		this.minimumRowsOfLargeTable = minimumRowsOfLargeTable;
+		this.costTolerance = costTolerance;
+	}
+
+	public synchronized void add(String path, String searchPath, String jdbcSql, Parameters parameters) {
+		queries.add(new Query(path, searchPath, jdbcSql, parameters));
+	}
+
+	public void explain(DataSource database, File fixture) throws IOException, SQLException {
+		try (final Connection connection = database.getConnection()) {
+			connection.setAutoCommit(false);
+			try {
+				if (fixture != null) {
+					try (final Statement statement = connection.createStatement()) {
+						statement.execute(new String(Files.readAllBytes(fixture.toPath()), UTF_8));
+						statement.execute("ANALYZE");
+					}
+				}
+				final List<Query> sorted;
+				synchronized (this) {
+					sorted = new ArrayList<>(queries);
+				}
+				sorted.sort((first, second) -> first.path.compareTo(second.path));
+				for (final Query query : sorted) {
+					plansByPath.put(query.path, explain(connection, query));
+				}
+			} finally {
+				connection.rollback();
+			}
+		}
+	}
+
+	private Map<String, Object> explain(Connection connection, Query query) throws SQLException {
+		final Savepoint savepoint = connection.setSavepoint();
+		try {
+			try (final Statement statement = connection.createStatement()) {
+				statement.execute("SET LOCAL search_path TO " + query.searchPath);
+			}
+			final String json;
+			try (final PreparedStatement statement = connection.prepareStatement(EXPLAIN + query.jdbcSql)) {
+				int index = 1;
+				for (final PostgresField parameter : query.parameters) {
+					statement.setObject(index ++, getRepresentativeValueOf(parameter), Types.OTHER);
+				}
+				try (final ResultSet results = statement.executeQuery()) {
+					results.next();
+					json = results.getString(1);
+				}
+			}
+			final Map<?, ?> root = (Map<?, ?>) ((List<?>) new JsonSlurper().parseText(json)).get(0);
+			final Map<?, ?> plan = (Map<?, ?>) root.get("Plan");
+			final List<Map<String, Object>> sequentialScans = new ArrayList<>();
+			final List<String> hints = new ArrayList<>();
+			final String shape = analyze(connection, plan, sequentialScans, hints);
+			final Map<String, Object> result = new LinkedHashMap<>();
+			result.put(TOTAL_COST, ((Number) plan.get("Total Cost")).doubleValue());
+			result.put(SHAPE, shape);
+			result.put(SEQUENTIAL_SCANS, sequentialScans);
+			result.put(HINTS, hints);
+			connection.releaseSavepoint(savepoint);
+			return result;
+		} catch (SQLException | RuntimeException exception) {
+			connection.rollback(savepoint);
+			final Map<String, Object> result = new LinkedHashMap<>();
+			result.put(ERROR, String.valueOf(exception.getMessage()));
+			return result;
+		}
+	}
+
+	private String analyze(Connection connection, Map<?, ?> node, List<Map<String, Object>> sequentialScans, List<String> hints) throws SQLException {
+		final String type = String.valueOf(node.get("Node Type"));
+		final Object relation = node.get("Relation Name");
+		final StringBuilder shape = new StringBuilder(type);
+		if (relation != null) {
+			shape.append('[').append(relation).append(']');
+			if ("Seq Scan".equals(type)) {
+				final long rows = getNumberOfRowsIn(connection, relation.toString());
+				if (rows >= minimumRowsOfLargeTable) {
+					final Object filter = node.get("Filter");
+					final Map<String, Object> scan = new LinkedHashMap<>();
+					scan.put("table", relation.toString());
+					scan.put("rows", rows);
+					if (filter != null) {
+						scan.put("filter", filter.toString());
+						hints.add("'" + relation + "' has about " + rows + " rows, but is scanned sequentially to evaluate " + filter + ", so it may be missing an index.");
+					}
+					sequentialScans.add(scan);
+				}
+			}
+		}
+		final Object children = node.get("Plans");
+		if (children instanceof List) {
+			shape.append('(');
+			boolean isFirst = true;
+			for (final Object child : (List<?>) children) {
+				if (isFirst == false) {
+					shape.append(", ");
+				}
+				shape.append(analyze(connection, (Map<?, ?>) child, sequentialScans, hints));
+				isFirst = false;
+			}
+			shape.append(')');
+		}
+		return shape.toString();
+	}
+
+	private static long getNumberOfRowsIn(Connection connection, String table) throws SQLException {
+		try (final PreparedStatement statement = connection.prepareStatement(NUMBER_OF_ROWS)) {
+			statement.setString(1, table);
+			try (final ResultSet results = statement.executeQuery()) {
+				if (results.next()) {
+					return (long) results.getFloat(1);
+				}
+				return 0;
+			}
+		}
+	}
+
+	public void writeTo(File report, Collection<String> currentPaths) throws IOException {
+		final Map<String, Object> merged = new TreeMap<>(read(report));
+		merged.keySet().retainAll(currentPaths);
+		merged.putAll(plansByPath);
+		plansByPath.clear();
+		plansByPath.putAll(toPlans(merged));
+		final Map<String, Object> json = new LinkedHashMap<>();
+		json.put(QUERIES, merged);
+		report.getParentFile().mkdirs();
+		Files.write(report.toPath(), prettyPrint(toJson(json)).getBytes(UTF_8));
+	}
+
+	public List<String> getRegressionsSince(File baseline, Logger logger) throws IOException {
+		final Map<String, Map<String, Object>> expected = toPlans(read(baseline));
+		final List<String> regressions = new ArrayList<>();
+		for (final Map.Entry<String, Map<String, Object>> entry : plansByPath.entrySet()) {
+			final String path = entry.getKey();
+			final Map<String, Object> actual = entry.getValue();
+			final Map<String, Object> previous = expected.get(path);
+			if (previous == null || actual.containsKey(ERROR) || previous.containsKey(ERROR)) {
+				continue;
+			}
+			final double cost = ((Number) actual.get(TOTAL_COST)).doubleValue();
+			final double previousCost = ((Number) previous.get(TOTAL_COST)).doubleValue();
+			if (cost > previousCost * (1 + costTolerance)) {
+				regressions.add("'" + path + "' is estimated to cost " + cost + ", but its baseline is " + previousCost + "!");
+			}
+			final Set<String> scannedTables = getScannedTables(actual);
+			scannedTables.removeAll(getScannedTables(previous));
+			if (scannedTables.isEmpty() == false) {
+				regressions.add("'" + path + "' now scans " + scannedTables + " sequentially, but its baseline does not!");
+			} else if (Objects.equals(actual.get(SHAPE), previous.get(SHAPE)) == false) {
+				logger.warn("The plan of '{}' has changed from {} to {}.", path, previous.get(SHAPE), actual.get(SHAPE));
+			}
+		}
+		return regressions;
+	}
+
+	private static Set<String> getScannedTables(Map<String, Object> plan) {
+		final Set<String> tables = new TreeSet<>();
+		final Object scans = plan.get(SEQUENTIAL_SCANS);
+		if (scans instanceof List) {
+			for (final Object scan : (List<?>) scans) {
+				tables.add(String.valueOf(((Map<?, ?>) scan).get("table")));
+			}
+		}
+		return tables;
+	}
+
+	private static Map<String, Object> read(File report) throws IOException {
+		if (report == null || report.isFile() == false) {
+			return new TreeMap<>();
+		}
+		final Object json = new JsonSlurper().parseText(new String(Files.readAllBytes(report.toPath()), UTF_8));
+		if (json instanceof Map && ((Map<?, ?>) json).get(QUERIES) instanceof Map) {
+			final Map<String, Object> queries = new TreeMap<>();
+			for (final Map.Entry<?, ?> entry : ((Map<?, ?>) ((Map<?, ?>) json).get(QUERIES)).entrySet()) {
+				queries.put(String.valueOf(entry.getKey()), entry.getValue());
+			}
+			return queries;
+		}
+		throw new IllegalArgumentException("'" + report + "' is not a report of query plans!");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Map<String, Object>> toPlans(Map<String, Object> queries) {
+		final Map<String, Map<String, Object>> plans = new TreeMap<>();
+		for (final Map.Entry<String, Object> entry : queries.entrySet()) {
+			if (entry.getValue() instanceof Map) {
+				plans.put(entry.getKey(), (Map<String, Object>) entry.getValue());
+			}
+		}
+		return plans;
+	}
+
+	private static class Query {
+
+		private final String path;
+		private final String searchPath;
+		private final String jdbcSql;
+		private final Parameters parameters;
+
+		private Query(String path, String searchPath, String jdbcSql, Parameters parameters) {
+			this.path = path;
+			this.searchPath = searchPath;
+			this.jdbcSql = jdbcSql;
+			this.parameters = parameters;
+		}
+
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.io.IOException;
+
+class R2dbcCodec {
+
+	public static String getVariableName(int index) {
+		return "column" + index;
+	}
+
+	public static void writeDecoderTo(AutoIndentingWriter writer, PostgresField column, int index) throws IOException {
+		final Codec codec = Codec.of(column.getType());
+		final String variable = getVariableName(index);
+		final String value = "row.get(" + index + ", " + codec.javaClass + ".class)";
+		if (column.isNullable()) {
+			final String javaType = column.getJavaType();
+			final int indexOfTypeArgument = javaType.indexOf('<');
+			final String wrapper = indexOfTypeArgument < 0 ? javaType : javaType.substring(0, indexOfTypeArgument);
+			final String raw = variable + "Value";
+			writer.writeLine("final ", codec.javaClass, ' ', raw, " = ", value, ';');
+			writer.writeLine("final ", javaType, ' ', variable, " = ", raw, " == null ? ", wrapper, ".empty() : ", wrapper, ".of(", codec.decode(raw), ");");
+		} else {
+			writer.writeLine("final ", column.getJavaType(), ' ', variable, " = ", codec.decode(value), ';');
+		}
+	}
+
+	public static void writeColumnarDecoderTo(AutoIndentingWriter writer, PostgresField column, int index) throws IOException {
+		if (column.isNullable() == false) {
+			writeDecoderTo(writer, column, index);
+			return;
+		}
+		final Codec codec = Codec.of(column.getType());
+		final String variable = getVariableName(index);
+		final String raw = variable + "Value";
+		final String value = "row.get(" + index + ", " + codec.javaClass + ".class)";
+		ColumnarCodec.writeNullableDecoderTo(writer, column, variable, codec.javaClass, raw, value, raw + " == null", codec.decode(raw));
+	}
+
+	public static void writeEncoderTo(AutoIndentingWriter writer, PostgresField parameter, int index) throws IOException {
+		final Codec codec = Codec.of(parameter.getType());
+		final String variable = JdbcCodec.getParameterVariableName(parameter.getName());
+		if (parameter.isNullable()) {
+			writer.writeLine("if (", variable, ".isPresent()) {");
+			writer.writeLine("statement.bind(", index, ", ", codec.encode(variable + JdbcCodec.getUnwrapperOf(parameter.getJavaType())), ");");
+			writer.writeLine("} else {");
+			writer.writeLine("statement.bindNull(", index, ", ", codec.javaClass, ".class);");
+			writer.writeLine("}");
+		} else {
+			writer.writeLine("statement.bind(", index, ", ", codec.encode(variable), ");");
+		}
+	}
+
+	private static class Codec {
+
+		private static Codec of(PostgresType type) {
+			if (type.isArray()) {
+				return new Codec(ArrayCodec.getElementClassOf(type) + "[]", ArrayCodec.getDecoderOf(type, "%s"), ArrayCodec.getBoxedArrayOf(type, "%s"));
+			}
+			switch (type) {
+				case BIG_DECMIAL:
+				case OPTIONAL_BIG_DECMIAL:
+					return new Codec("BigDecimal");
+				case BOOLEAN:
+				case OPTIONAL_BOOLEAN:
+					return new Codec("Boolean");
+				case BYTE_ARRAY:
+				case OPTIONAL_BYTE_ARRAY:
+					return new Codec("byte[]");
+				case CHARACTER:
+				case OPTIONAL_CHARACTER:
+					return new Codec("String", "%s.charAt(0)", "String.valueOf(%s)");
+				case DOUBLE:
+				case OPTIONAL_DOUBLE:
+					return new Codec("Double");
+				case FLOAT:
+				case OPTIONAL_FLOAT:
+					return new Codec("Float");
+				case INTEGER:
+				case OPTIONAL_INTEGER:
+					return new Codec("Integer");
+				case LOCAL_DATE:
+				case OPTIONAL_LOCAL_DATE:
+					return new Codec("LocalDate");
+				case LOCAL_DATE_TIME:
+				case OPTIONAL_LOCAL_DATE_TIME:
+					return new Codec("LocalDateTime");
+				case LOCAL_TIME:
+				case OPTIONAL_LOCAL_TIME:
+					return new Codec("LocalTime");
+				case LONG:
+				case OPTIONAL_LONG:
+					return new Codec("Long");
+				case OFFSET_DATE_TIME:
+				case OPTIONAL_OFFSET_DATE_TIME:
+					return new Codec("OffsetDateTime");
+				case OFFSET_TIME:
+				case OPTIONAL_OFFSET_TIME:
+					return new Codec("OffsetTime");
+				case SHORT:
+				case OPTIONAL_SHORT:
+					return new Codec("Short");
+				case UUID:
+				case OPTIONAL_UUID:
+					return new Codec("UUID");
+				default:
+					return new Codec("String");
+			}
+		}
+
+		private final String javaClass;
+		private final String decoding;
+		private final String encoding;
+
+		private Codec(String javaClass) {
+			this(javaClass, "%s", "%s");
+		}
+
+		private Codec(String javaClass, String decoding, String encoding) {
+			this.javaClass = javaClass;
+			this.decoding = decoding;
+			this.encoding = encoding;
+		}
+
+		private String decode(String value) {
+			return String.format(decoding, value);
+		}
+
+		private String encode(String value) {
+			return String.format(encoding, value);
+		}
+
+	}
+
+}
@@ -21,12 +21,16 @@ public interface ResultColumns extends Iterable<PostgresField> {
 			final int offset = index + 1;
 			final String postgresType = results.getColumnTypeName(offset);
 			final boolean isNullable = results.isNullable(offset) == columnNullable;
-			columns[index] = new PostgresField(results.getColumnLabel(offset), PostgresType.from(postgresType, isNullable));
+			columns[index] = PostgresField.from(results.getColumnLabel(offset), postgresType, isNullable);
 		}
-		if (numberOfColumns == 1) {
+		return of(columns);
+	}
+
+	public static ResultColumns of(PostgresField ... columns) {
+		if (columns.length == 1) {
 			return new One(columns[0]);
 		}
-		return new Many(columns);
+		return new Many(columns.clone());
 	}
 
 	interface Visitor<E extends Exception> {
@@ -0,0 +1,48 @@
+package com.github.ryanholdren.typesafesql;
+
+import com.google.common.base.Supplier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import javax.sql.DataSource;
+
+class SQLAnalyzer implements AutoCloseable {
+
+	private final Supplier<DataSource> database;
+	private final Timings timings;
+	private Connection connection;
+	private String searchPath;
+
+	public SQLAnalyzer(Supplier<DataSource> database, Timings timings) {
+		this.database = database;
+		this.timings = timings;
+	}
+
+	public PreparedStatement prepare(String searchPath, String jdbcSql) throws SQLException {
+		if (connection == null) {
+			final DataSource dataSource = database.get();
+			final long startOfConnection = Timings.now();
+			connection = dataSource.getConnection();
+			timings.record(Timings.CONNECTION, startOfConnection);
+		}
+		if (Objects.equals(this.searchPath, searchPath) == false) {
+			final long startOfSearchPath = Timings.now();
+			try (final Statement statement = connection.createStatement()) {
+				statement.execute("SET search_path TO " + searchPath + ';');
+			}
+			timings.record(Timings.SEARCH_PATH, startOfSearchPath);
+			this.searchPath = searchPath;
+		}
+		return connection.prepareStatement(jdbcSql);
+	}
+
+	@Override
+	public void close() throws SQLException {
+		if (connection != null) {
+			connection.close();
+		}
+	}
+
+}
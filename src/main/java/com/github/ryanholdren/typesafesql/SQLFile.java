@@ -0,0 +1,49 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.io.File;
+import java.nio.file.Path;
+import org.gradle.api.file.RelativePath;
+
+class SQLFile {
+
+	private final File file;
+	private final RelativePath relativePath;
+	private final String className;
+	private String fingerprint;
+
+	public SQLFile(File file, RelativePath relativePath, String className) {
+		this.file = file;
+		this.relativePath = relativePath;
+		this.className = className;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public RelativePath getRelativePath() {
+		return relativePath;
+	}
+
+	public String getClassName() {
+		return className;
+	}
+
+	public String getNamespace() {
+		final String path = relativePath.getPathString();
+		return path.substring(0, path.lastIndexOf('/')).replace('/', '.');
+	}
+
+	public Path getJavaFile(File outputDirectory) {
+		return relativePath.replaceLastName(className + ".java").getFile(outputDirectory).toPath();
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public void setFingerprint(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
+}
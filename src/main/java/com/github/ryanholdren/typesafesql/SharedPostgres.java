@@ -0,0 +1,162 @@
+package com.github.ryanholdren.typesafesql;
+
+import com.opentable.db.postgres.embedded.EmbeddedPostgres;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+class SharedPostgres {
+
+	private static final Logger LOGGER = Logging.getLogger(SharedPostgres.class);
+	private static final ConcurrentHashMap<String, Object> LOCKS = new ConcurrentHashMap<>();
+	private static final Set<String> INITIALIZED_DATABASES = ConcurrentHashMap.newKeySet();
+
+	private static EmbeddedPostgres postgres;
+	private static int numberOfBorrowers;
+	private static boolean isStopRequested;
+	private static boolean isShutdownHookRegistered;
+
+	public static synchronized Lease borrow(File dataDirectory) throws IOException {
+		if (postgres == null) {
+			postgres = start(dataDirectory);
+			if (isShutdownHookRegistered == false) {
+				Runtime.getRuntime().addShutdownHook(new Thread(SharedPostgres::stopQuietly));
+				isShutdownHookRegistered = true;
+			}
+		}
+		isStopRequested = false;
+		numberOfBorrowers ++;
+		return new Lease(postgres);
+	}
+
+	private static EmbeddedPostgres start(File dataDirectory) throws IOException {
+		LOGGER.info("Starting embedded Postgres in '{}'...", dataDirectory);
+		try {
+			dataDirectory.mkdirs();
+			return EmbeddedPostgres
+				.builder()
+				.setDataDirectory(dataDirectory)
+				.setCleanDataDirectory(false)
+				.start();
+		} catch (IOException | RuntimeException exception) {
+			LOGGER.warn("Could not start embedded Postgres in '{}', so starting it in a temporary directory instead!", dataDirectory, exception);
+			return EmbeddedPostgres.builder().start();
+		}
+	}
+
+	private static synchronized void release() {
+		if (numberOfBorrowers > 0) {
+			numberOfBorrowers --;
+		}
+		if (numberOfBorrowers == 0 && isStopRequested) {
+			stop();
+		}
+	}
+
+	public static synchronized void stopWhenReleased() {
+		isStopRequested = true;
+		if (numberOfBorrowers == 0) {
+			stop();
+		} else {
+			LOGGER.info("Embedded Postgres is still borrowed by {} task(s), so it will be stopped when they are done.", numberOfBorrowers);
+		}
+	}
+
+	private static synchronized void stop() {
+		isStopRequested = false;
+		if (postgres == null) {
+			return;
+		}
+		LOGGER.info("Stopping embedded Postgres...");
+		try {
+			final Lease lease = new Lease(postgres);
+			for (final String name : INITIALIZED_DATABASES) {
+				lease.execute("DROP DATABASE IF EXISTS \"" + name + '"');
+			}
+		} catch (SQLException exception) {
+			LOGGER.debug("Could not drop databases before stopping embedded Postgres!", exception);
+		}
+		try {
+			postgres.close();
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		} finally {
+			postgres = null;
+			numberOfBorrowers = 0;
+			INITIALIZED_DATABASES.clear();
+		}
+	}
+
+	private static void stopQuietly() {
+		try {
+			stop();
+		} catch (RuntimeException exception) {
+			LOGGER.debug("Could not stop embedded Postgres!", exception);
+		}
+	}
+
+	public interface DatabaseInitializer {
+		void initialize(Lease postgres, String name) throws SQLException;
+	}
+
+	public static class Lease implements AutoCloseable {
+
+		private final EmbeddedPostgres postgres;
+		private boolean isClosed;
+
+		private Lease(EmbeddedPostgres postgres) {
+			this.postgres = postgres;
+		}
+
+		public DataSource getDatabase(String name, DatabaseInitializer initializer) throws SQLException {
+			synchronized (LOCKS.computeIfAbsent(name, key -> new Object())) {
+				if (INITIALIZED_DATABASES.contains(name) == false) {
+					execute("DROP DATABASE IF EXISTS \"" + name + '"');
+					try {
+						initializer.initialize(this, name);
+					} catch (SQLException | RuntimeException exception) {
+						execute("DROP DATABASE IF EXISTS \"" + name + '"');
+						throw exception;
+					}
+					INITIALIZED_DATABASES.add(name);
+				}
+			}
+			return getDataSource(name);
+		}
+
+		public DataSource getDataSource(String name) {
+			return postgres.getDatabase("postgres", name);
+		}
+
+		public DataSource getPostgresDatabase() {
+			return postgres.getPostgresDatabase();
+		}
+
+		public void execute(String sql) throws SQLException {
+			try (
+				final Connection connection = getPostgresDatabase().getConnection();
+				final Statement statement = connection.createStatement()
+			) {
+				statement.execute(sql);
+			}
+		}
+
+		@Override
+		public synchronized void close() {
+			if (isClosed == false) {
+				isClosed = true;
+				release();
+			}
+		}
+
+	}
+
+}
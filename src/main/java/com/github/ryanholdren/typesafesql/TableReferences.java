@@ -0,0 +1,54 @@
+package com.github.ryanholdren.typesafesql;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+import static java.util.regex.Pattern.compile;
+
+class TableReferences {
+
+	private static final String IDENTIFIER = "(?:\"(?:[^\"]|\"\")+\"|[A-Za-z_][A-Za-z0-9_$]*)";
+	private static final String TABLE = "(?:" + IDENTIFIER + "\\s*\\.\\s*)?(" + IDENTIFIER + ")";
+	private static final Pattern READ = compile("\\b(?:FROM|JOIN)\\s+(?:ONLY\\s+)?" + TABLE, CASE_INSENSITIVE);
+	private static final Pattern WRITTEN = compile("\\b(?:INSERT\\s+INTO|UPDATE(?!\\s+SET\\b)|DELETE\\s+FROM|TRUNCATE(?:\\s+TABLE)?)\\s+(?:ONLY\\s+)?" + TABLE, CASE_INSENSITIVE);
+
+	public static TableReferences from(String normalizedSql) {
+		return new TableReferences(find(READ, normalizedSql), find(WRITTEN, normalizedSql));
+	}
+
+	private static Set<String> find(Pattern pattern, String sql) {
+		final TreeSet<String> tables = new TreeSet<>();
+		final Matcher matcher = pattern.matcher(sql);
+		while (matcher.find()) {
+			tables.add(normalize(matcher.group(1)));
+		}
+		return tables;
+	}
+
+	private static String normalize(String identifier) {
+		if (identifier.startsWith("\"")) {
+			return identifier.substring(1, identifier.length() - 1).replace("\"\"", "\"");
+		}
+		return identifier.toLowerCase(Locale.ROOT);
+	}
+
+	private final Set<String> readTables;
+	private final Set<String> writtenTables;
+
+	private TableReferences(Set<String> readTables, Set<String> writtenTables) {
+		this.readTables = readTables;
+		this.writtenTables = writtenTables;
+	}
+
+	public Set<String> getReadTables() {
+		return readTables;
+	}
+
+	public Set<String> getWrittenTables() {
+		return writtenTables;
+	}
+
+}
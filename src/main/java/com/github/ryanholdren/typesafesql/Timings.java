@@ -0,0 +1,154 @@
+package com.github.ryanholdren.typesafesql;
+
+import static groovy.json.JsonOutput.prettyPrint;
+import static groovy.json.JsonOutput.toJson;
+import java.io.File;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import org.gradle.api.logging.Logger;
+
+class Timings {
+
+	public static final String POSTGRES_STARTUP = "postgresStartup";
+	public static final String DATABASE_INITIALIZATION = "databaseInitialization";
+	public static final String MIGRATION = "migration";
+	public static final String CONNECTION = "connection";
+	public static final String SEARCH_PATH = "searchPath";
+	public static final String DESCRIBE = "describe";
+	public static final String RENDER = "render";
+	public static final String WRITE = "write";
+	public static final String EXPLAIN = "explain";
+
+	public static long now() {
+		return System.nanoTime();
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	private final String task;
+	private final long start = now();
+	private final Map<String, Phase> phases = new LinkedHashMap<>();
+	private final List<Migration> migrations = new ArrayList<>();
+	private final Map<String, Map<String, Long>> files = new TreeMap<>();
+
+	public Timings(String task) {
+		this.task = task;
+	}
+
+	public synchronized void record(String phase, long startOfPhase) {
+		phases.computeIfAbsent(phase, name -> new Phase()).add(now() - startOfPhase);
+	}
+
+	public synchronized void recordMigration(String script, long startOfMigration) {
+		final long nanos = now() - startOfMigration;
+		phases.computeIfAbsent(MIGRATION, name -> new Phase()).add(nanos);
+		migrations.add(new Migration(script, nanos));
+	}
+
+	public synchronized void recordFile(String path, String phase, long startOfPhase) {
+		final long nanos = now() - startOfPhase;
+		phases.computeIfAbsent(phase, name -> new Phase()).add(nanos);
+		files.computeIfAbsent(path, name -> new LinkedHashMap<>()).merge(phase, nanos, Long::sum);
+	}
+
+	public synchronized void writeTo(File report) throws IOException {
+		final Map<String, Object> json = new LinkedHashMap<>();
+		json.put("task", task);
+		json.put("totalMillis", toMillis(now() - start));
+		final Map<String, Object> phasesAsJson = new LinkedHashMap<>();
+		for (final Map.Entry<String, Phase> entry : phases.entrySet()) {
+			phasesAsJson.put(entry.getKey(), entry.getValue().toJson());
+		}
+		json.put("phases", phasesAsJson);
+		final List<Object> migrationsAsJson = new ArrayList<>(migrations.size());
+		for (final Migration migration : migrations) {
+			final Map<String, Object> migrationAsJson = new LinkedHashMap<>();
+			migrationAsJson.put("script", migration.script);
+			migrationAsJson.put("millis", toMillis(migration.nanos));
+			migrationsAsJson.add(migrationAsJson);
+		}
+		json.put("migrations", migrationsAsJson);
+		final List<Object> filesAsJson = new ArrayList<>(files.size());
+		for (final Map.Entry<String, Map<String, Long>> file : getFilesFromSlowestToFastest()) {
+			final Map<String, Object> fileAsJson = new LinkedHashMap<>();
+			fileAsJson.put("path", file.getKey());
+			fileAsJson.put("totalMillis", toMillis(sum(file.getValue())));
+			for (final Map.Entry<String, Long> phase : file.getValue().entrySet()) {
+				fileAsJson.put(phase.getKey() + "Millis", toMillis(phase.getValue()));
+			}
+			filesAsJson.add(fileAsJson);
+		}
+		json.put("files", filesAsJson);
+		report.getParentFile().mkdirs();
+		Files.write(report.toPath(), prettyPrint(toJson(json)).getBytes(UTF_8));
+	}
+
+	public synchronized void logSlowestFiles(Logger logger, int numberOfFiles) {
+		if (logger.isInfoEnabled() == false || files.isEmpty()) {
+			return;
+		}
+		final List<Map.Entry<String, Map<String, Long>>> slowest = getFilesFromSlowestToFastest();
+		logger.info("The slowest SQL files to process were:");
+		for (final Map.Entry<String, Map<String, Long>> file : slowest.subList(0, Math.min(numberOfFiles, slowest.size()))) {
+			logger.info("\t{} ms\t{} {}", NANOSECONDS.toMillis(sum(file.getValue())), file.getKey(), file.getValue().keySet());
+		}
+	}
+
+	private List<Map.Entry<String, Map<String, Long>>> getFilesFromSlowestToFastest() {
+		final List<Map.Entry<String, Map<String, Long>>> sorted = new ArrayList<>(files.entrySet());
+		sorted.sort((a, b) -> Long.compare(sum(b.getValue()), sum(a.getValue())));
+		return sorted;
+	}
+
+	private static long sum(Map<String, Long> phases) {
+		long sum = 0;
+		for (final long nanos : phases.values()) {
+			sum += nanos;
+		}
+		return sum;
+	}
+
+	private static class Phase {
+
+		private int count;
+		private long totalNanos;
+		private long maximumNanos;
+
+		private void add(long nanos) {
+			count ++;
+			totalNanos += nanos;
+			maximumNanos = Math.max(maximumNanos, nanos);
+		}
+
+		private Map<String, Object> toJson() {
+			final Map<String, Object> json = new LinkedHashMap<>();
+			json.put("count", count);
+			json.put("totalMillis", toMillis(totalNanos));
+			json.put("maxMillis", toMillis(maximumNanos));
+			return json;
+		}
+
+	}
+
+	private static class Migration {
+
+		private final String script;
+		private final long nanos;
+
+		private Migration(String script, long nanos) {
+			this.script = script;
+			this.nanos = nanos;
+		}
+
+	}
+
+}
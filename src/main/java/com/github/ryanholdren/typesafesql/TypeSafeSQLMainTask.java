@@ -2,6 +2,6 @@ package com.github.ryanholdren.typesafesql;
 
 public class TypeSafeSQLMainTask extends TypeSafeSQLTask {
 	public TypeSafeSQLMainTask() {
-		super("src/main/sql", "build/typesafesql/main");
+		super("src/main/sql", "build/typesafesql/main", "typesafesql");
 	}
 }
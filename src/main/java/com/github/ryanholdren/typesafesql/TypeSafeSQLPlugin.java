@@ -1,10 +1,17 @@
 package com.github.ryanholdren.typesafesql;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.invocation.Gradle;
 import org.gradle.api.tasks.TaskContainer;
 
 public class TypeSafeSQLPlugin implements Plugin<Project> {
+
+	public static final String KEEP_POSTGRES_ALIVE_PROPERTY = "typesafesql.keepPostgresAlive";
+
+	private static final AtomicBoolean IS_BUILD_LISTENER_REGISTERED = new AtomicBoolean();
+
 	@Override
 	public void apply(Project project) {
 		final TaskContainer tasks = project.getTasks();
@@ -12,5 +19,16 @@ public class TypeSafeSQLPlugin implements Plugin<Project> {
 		tasks.getByName("compileJava").dependsOn(transcodeSql);
 		final TypeSafeSQLTestTask transcodeTestSql = tasks.create("createTestJavaFilesFromSQL", TypeSafeSQLTestTask.class);
 		tasks.getByName("compileTestJava").dependsOn(transcodeTestSql);
+		if (IS_BUILD_LISTENER_REGISTERED.compareAndSet(false, true)) {
+			final Gradle gradle = project.getGradle();
+			gradle.buildFinished(result -> {
+				IS_BUILD_LISTENER_REGISTERED.set(false);
+				final Object keepPostgresAlive = gradle.getRootProject().findProperty(KEEP_POSTGRES_ALIVE_PROPERTY);
+				if (keepPostgresAlive == null || Boolean.parseBoolean(keepPostgresAlive.toString()) == false) {
+					SharedPostgres.stopWhenReleased();
+				}
+			});
+		}
 	}
+
 }
\ No newline at end of file
@@ -1,26 +1,43 @@
 package com.github.ryanholdren.typesafesql;
 
-import static com.github.ryanholdren.typesafesql.Constants.PARAMETER_PATTERN;
 import com.github.ryanholdren.typesafesql.ImmutableJavaClassWriter;
-import static com.github.ryanholdren.typesafesql.JavaClassWriter.LINE_BREAK;
 import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.Hasher;
+import static com.google.common.hash.Hashing.sha256;
 import com.google.common.io.Files;
-import com.opentable.db.postgres.embedded.EmbeddedPostgres;
-import java.io.BufferedWriter;
+import com.google.common.io.Resources;
 import java.io.File;
 import java.io.IOException;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import java.nio.file.Path;
-import static java.nio.file.Files.newBufferedWriter;
-import java.sql.Connection;
+import java.nio.file.DirectoryStream;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newDirectoryStream;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import static java.util.Comparator.comparing;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.regex.Matcher;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import javax.sql.DataSource;
 import org.flywaydb.core.Flyway;
@@ -31,22 +48,52 @@ import org.gradle.api.file.FileTree;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.logging.Logger;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 
 class TypeSafeSQLTask extends DefaultTask implements Constants {
 
-	private static final String DEFAULT_MIGRATION_DIRECTORY = "filesystem:src/main/resources/db/migration";
+	private static final String DEFAULT_MIGRATION_DIRECTORY = "src/main/resources/db/migration";
+	private static final String FINGERPRINTS_FILE_NAME = "fingerprints.txt";
+	private static final String DATABASE_PREFIX = "typesafesql_";
+	private static final String METADATA_CACHE_DIRECTORY = "typesafesql/metadata";
+	private static final String POSTGRES_DIRECTORY = "typesafesql/postgres";
+	private static final String REPORTS_DIRECTORY = "reports/typesafesql";
+	private static final int NUMBER_OF_SLOWEST_FILES_TO_LOG = 10;
+	private static final String PLANS_REPORT_SUFFIX = "-plans.json";
+	private static final double DEFAULT_EXPLAIN_COST_TOLERANCE = 0.1;
+	private static final long DEFAULT_MINIMUM_ROWS_OF_LARGE_TABLE = 10000;
+	private static final String QUERY_DESCRIPTOR = "QueryDescriptor";
+	private static final String QUERY_LISTENER = "QueryListener";
+	private static final String QUERY_METRICS = "QueryMetrics";
+	private static final String TEMPLATE_EXTENSION = ".java.template";
+	private static final String PACKAGE_PLACEHOLDER = "${package}";
 
 	private String sourceDirectory;
 	private String destinationDirectory;
+	private String supportPackage;
 	private ConfigurableFileCollection migrationDirectories;
 	private Map<String, String> migrationPlaceholders;
 	private Map<String, String> schemas;
+	private int maxParallelism = Runtime.getRuntime().availableProcessors();
+	private Set<Backend> backends = EnumSet.of(Backend.PG_ASYNC);
+	private Integer fetchSize;
+	private boolean explain;
+	private String explainFixture;
+	private String explainBaseline;
+	private double explainCostTolerance = DEFAULT_EXPLAIN_COST_TOLERANCE;
+	private long minimumRowsOfLargeTable = DEFAULT_MINIMUM_ROWS_OF_LARGE_TABLE;
 
-	public TypeSafeSQLTask(String defaultSourceDirectory, String defaultDestinationDirectory) {
+	public TypeSafeSQLTask(String defaultSourceDirectory, String defaultDestinationDirectory, String defaultSupportPackage) {
 		this.sourceDirectory = defaultSourceDirectory;
 		this.destinationDirectory = defaultDestinationDirectory;
-		this.destinationDirectory = DEFAULT_MIGRATION_DIRECTORY;
+		this.supportPackage = defaultSupportPackage;
+		this.migrationDirectories = getProject().files(DEFAULT_MIGRATION_DIRECTORY);
 	}
 
 	public TypeSafeSQLTask setSourceDirectory(String sourceDirectory) {
@@ -59,6 +106,11 @@ class TypeSafeSQLTask extends DefaultTask implements Constants {
 		return this;
 	}
 
+	public TypeSafeSQLTask setSupportPackage(String supportPackage) {
+		this.supportPackage = supportPackage;
+		return this;
+	}
+
 	public TypeSafeSQLTask setMigrationDirectory(ConfigurableFileCollection migrationDirectories) {
 		this.migrationDirectories = migrationDirectories;
 		return this;
@@ -74,31 +126,146 @@ class TypeSafeSQLTask extends DefaultTask implements Constants {
 		return this;
 	}
 
+	public TypeSafeSQLTask setMaxParallelism(int maxParallelism) {
+		this.maxParallelism = maxParallelism;
+		return this;
+	}
+
+	public TypeSafeSQLTask setBackends(Backend ... backends) {
+		this.backends = EnumSet.noneOf(Backend.class);
+		this.backends.addAll(Arrays.asList(backends));
+		return this;
+	}
+
+	public TypeSafeSQLTask setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+	public TypeSafeSQLTask setExplain(boolean explain) {
+		this.explain = explain;
+		return this;
+	}
+
+	public TypeSafeSQLTask setExplainFixture(String explainFixture) {
+		this.explainFixture = explainFixture;
+		return this;
+	}
+
+	public TypeSafeSQLTask setExplainBaseline(String explainBaseline) {
+		this.explainBaseline = explainBaseline;
+		return this;
+	}
+
+	public TypeSafeSQLTask setExplainCostTolerance(double explainCostTolerance) {
+		this.explainCostTolerance = explainCostTolerance;
+		return this;
+	}
+
+	public TypeSafeSQLTask setMinimumRowsOfLargeTable(long minimumRowsOfLargeTable) {
+		this.minimumRowsOfLargeTable = minimumRowsOfLargeTable;
+		return this;
+	}
+
+	@InputFiles
+	public FileTree getSourceFiles() {
+		return getProject().files(sourceDirectory).getAsFileTree();
+	}
+
+	@Input
+	public String getSupportPackage() {
+		return supportPackage;
+	}
+
+	@InputFiles
+	public ConfigurableFileCollection getMigrationDirectories() {
+		return migrationDirectories;
+	}
+
+	@Input
+	@Optional
+	public Map<String, String> getMigrationPlaceholders() {
+		return migrationPlaceholders;
+	}
+
+	@Input
+	@Optional
+	public Map<String, String> getSchemas() {
+		return schemas;
+	}
+
+	@Input
+	public Set<Backend> getBackends() {
+		return backends;
+	}
+
+	@Input
+	@Optional
+	public Integer getFetchSize() {
+		return fetchSize;
+	}
+
+	@Input
+	public boolean getExplain() {
+		return explain;
+	}
+
+	@InputFile
+	@Optional
+	public File getExplainFixture() {
+		return explainFixture == null ? null : getProject().file(explainFixture);
+	}
+
+	@InputFile
+	@Optional
+	public File getExplainBaseline() {
+		return explainBaseline == null ? null : getProject().file(explainBaseline);
+	}
+
+	@Input
+	public double getExplainCostTolerance() {
+		return explainCostTolerance;
+	}
+
+	@Input
+	public long getMinimumRowsOfLargeTable() {
+		return minimumRowsOfLargeTable;
+	}
+
+	@OutputDirectory
+	public File getOutputDirectory() {
+		return getProject().file(destinationDirectory);
+	}
+
 	@TaskAction
-	public void createJavaFilesFromSQL() throws IOException {
+	public void createJavaFilesFromSQL(IncrementalTaskInputs inputs) throws IOException {
 		final Project project = getProject();
 		final Gradle gradle = project.getGradle();
 		gradle.addListener(this);
 		final Logger logger = getLogger();
 		logger.info(
-			"Creating Java files from SQL files in '%s' and writing them to '%s'...",
+			"Creating Java files from SQL files in '{}' and writing them to '{}'...",
 			sourceDirectory,
 			destinationDirectory
 		);
-		final File output = project.file(destinationDirectory);
-		final FileTree files = project.files(sourceDirectory).getAsFileTree();
+		final File output = getOutputDirectory();
+		final FileTree files = getSourceFiles();
 		if (files.isEmpty()) {
 			logger.info("There are no files to be processed!");
 		}
-		final EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
-		final DataSource dataSource = postgres.getPostgresDatabase();
-		final Flyway flyway = new Flyway();
-		flyway.setDataSource(dataSource);
-		flyway.setLocations(Iterables.toArray(Iterables.transform(migrationDirectories, migrationDirectory -> {
-			return "filesystem:" + migrationDirectory.getAbsolutePath();
-		}), String.class));
-		flyway.setPlaceholders(migrationPlaceholders);
-		flyway.migrate();
+		final File fingerprintsFile = new File(getTemporaryDir(), FINGERPRINTS_FILE_NAME);
+		final Fingerprints previous = Fingerprints.loadFrom(fingerprintsFile);
+		final Fingerprints fingerprints;
+		if (inputs.isIncremental()) {
+			fingerprints = previous;
+		} else {
+			fingerprints = Fingerprints.emptyAt(fingerprintsFile);
+		}
+		final Migrations migrations = getMigrations();
+		final String fingerprintOfEnvironment = getFingerprintOfEnvironment(migrations);
+		final TreeSet<String> stalePaths = new TreeSet<>(fingerprints.getPaths());
+		final List<SQLFile> outdated = new ArrayList<>();
+		final Set<Path> javaFiles = new HashSet<>();
 		files.visit(details -> {
 			if (details.isDirectory()) {
 				return;
@@ -116,62 +283,353 @@ class TypeSafeSQLTask extends DefaultTask implements Constants {
 			if ("sql".equalsIgnoreCase(extension) == false) {
 				return;
 			}
-			final String className = parts.get(0);
-			final RelativePath relative = details.getRelativePath();
-			logger.info("Creating Java file from '%s'...", relative);
-			final File sqlFile = details.getFile().getAbsoluteFile();
-			final Path javaFile = relative.replaceLastName(className + ".java").getFile(output).toPath();
 			final String path = details.getPath();
-			final String namespace = path.substring(0, path.lastIndexOf('/')).replace('/', '.');
+			stalePaths.remove(path);
+			final SQLFile file = new SQLFile(details.getFile().getAbsoluteFile(), details.getRelativePath(), parts.get(0));
+			final Path javaFile = file.getJavaFile(output);
+			javaFiles.add(javaFile);
+			final String fingerprint = getFingerprintOf(file, fingerprintOfEnvironment);
+			if (fingerprints.matches(path, fingerprint) && javaFile.toFile().isFile()) {
+				logger.debug("'{}' has not changed since the last build.", path);
+				return;
+			}
+			file.setFingerprint(fingerprint);
+			outdated.add(file);
+		});
+		for (final String stalePath : stalePaths) {
+			fingerprints.remove(stalePath);
+		}
+		final Set<String> previousOutputs = previous.getOutputs();
+		final Set<String> possibleOutputs = new TreeSet<>(previousOutputs);
+		possibleOutputs.addAll(getOutputsOf(javaFiles, output.toPath()));
+		fingerprints.setOutputs(possibleOutputs);
+		if (outdated.isEmpty()) {
+			logger.info("All Java files are up to date.");
+		} else {
 			try {
-				final String sql = Files.toString(sqlFile, UTF_8);
-				final ArrayList<String> parameterNames = new ArrayList<>();
-				final StringBuffer buffer = new StringBuffer();
-				final Matcher matcher = PARAMETER_PATTERN.matcher(sql);
-				while (matcher.find()) {
-					parameterNames.add(matcher.group().substring(1));
-					matcher.appendReplacement(buffer, "?");
-				}
-				matcher.appendTail(buffer);
-				final String jdbcSql = buffer.toString();
-				try (Connection connection = dataSource.getConnection()) {
-					try {
-						final String schema = getSchemaFrom(sqlFile, sql);
-						connection.createStatement().execute("SET search_path TO " + schemas.get(schema) + ';');
-						final PreparedStatement statement = connection.prepareStatement(jdbcSql);
-						final Parameters parameters = Parameters.from(parameterNames, statement.getParameterMetaData());
-						final ResultColumns resultColumns = ResultColumns.from(statement.getMetaData());
-						javaFile.getParent().toFile().mkdirs();
-						try (final BufferedWriter writer = newBufferedWriter(javaFile)) {
-							ImmutableJavaClassWriter
-								.builder()
-								.namespace(namespace)
-								.className(className)
-								.sql(sql)
-								.parameters(parameters)
-								.resultColumns(resultColumns)
-								.build()
-								.writeTo(writer);
-						}
-					} catch (SQLException exception) {
-						throw new RuntimeException(sqlFile + " is not valid SQL!", exception);
+				createJavaFilesFrom(outdated, output, fingerprints, migrations);
+			} catch (IOException | RuntimeException exception) {
+				fingerprints.save();
+				throw exception;
+			}
+		}
+		for (final String supportClass : getSupportClassesWithDependencies(fingerprints.getSupportClasses())) {
+			final Path supportFile = getSupportFile(output, supportClass);
+			javaFiles.add(supportFile);
+			writeSupportClassTo(supportFile, supportClass);
+		}
+		final Set<String> outputs = getOutputsOf(javaFiles, output.toPath());
+		deleteJavaFilesOtherThan(outputs, previousOutputs, output.toPath());
+		fingerprints.setOutputs(outputs);
+		fingerprints.save();
+	}
+
+	private static Set<String> getSupportClassesWithDependencies(Set<String> supportClasses) {
+		final Set<String> withDependencies = new TreeSet<>(supportClasses);
+		if (withDependencies.contains(QUERY_METRICS)) {
+			withDependencies.add(QUERY_LISTENER);
+		}
+		if (withDependencies.contains(QUERY_LISTENER)) {
+			withDependencies.add(QUERY_DESCRIPTOR);
+		}
+		return withDependencies;
+	}
+
+	private Path getSupportFile(File output, String className) {
+		return new File(new File(output, supportPackage.replace('.', '/')), className + ".java").toPath();
+	}
+
+	private void writeSupportClassTo(Path javaFile, String className) throws IOException {
+		final String template = Resources.toString(Resources.getResource(TypeSafeSQLTask.class, className + TEMPLATE_EXTENSION), UTF_8);
+		final AutoIndentingWriter writer = new AutoIndentingWriter();
+		writer.writeVerbatim(template.replace(PACKAGE_PLACEHOLDER, supportPackage));
+		if (writer.writeTo(javaFile)) {
+			getLogger().info("Wrote '{}'.", javaFile);
+		}
+	}
+
+	private static Set<String> getOutputsOf(Set<Path> javaFiles, Path output) {
+		final Set<String> outputs = new TreeSet<>();
+		for (final Path javaFile : javaFiles) {
+			outputs.add(output.relativize(javaFile).toString().replace(File.separatorChar, '/'));
+		}
+		return outputs;
+	}
+
+	private void deleteJavaFilesOtherThan(Set<String> outputs, Set<String> previousOutputs, Path output) throws IOException {
+		for (final String previousOutput : previousOutputs) {
+			if (outputs.contains(previousOutput)) {
+				continue;
+			}
+			final Path javaFile = output.resolve(previousOutput);
+			if (isRegularFile(javaFile)) {
+				getLogger().info("Deleting '{}', which is no longer generated...", previousOutput);
+				delete(javaFile);
+			}
+			Path directory = javaFile.getParent();
+			while (directory != null && directory.startsWith(output) && directory.equals(output) == false && isDirectory(directory)) {
+				try (final DirectoryStream<Path> children = newDirectoryStream(directory)) {
+					if (children.iterator().hasNext()) {
+						break;
 					}
 				}
-			} catch (SQLException | IOException exception) {
-				throw new RuntimeException(exception);
+				delete(directory);
+				directory = directory.getParent();
+			}
+		}
+	}
+
+	private void createJavaFilesFrom(List<SQLFile> files, File output, Fingerprints fingerprints, Migrations migrations) throws IOException {
+		files.sort(comparing(file -> file.getRelativePath().getPathString()));
+		final String fingerprintOfMigrations = migrations.getFingerprint();
+		final MetadataCache cache = new MetadataCache(getCacheDirectory(METADATA_CACHE_DIRECTORY));
+		final Timings timings = new Timings(getPath());
+		final AtomicReference<SharedPostgres.Lease> lease = new AtomicReference<>();
+		final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		final Supplier<DataSource> database = Suppliers.memoize(() -> {
+			if (failure.get() != null) {
+				throw failure.get();
+			}
+			getLogger().info("Not all queries have been analysed before, so the database is needed...");
+			try {
+				final long startOfPostgres = Timings.now();
+				final SharedPostgres.Lease borrowed = SharedPostgres.borrow(getCacheDirectory(POSTGRES_DIRECTORY));
+				timings.record(Timings.POSTGRES_STARTUP, startOfPostgres);
+				try {
+					final long startOfDatabase = Timings.now();
+					final DataSource dataSource = borrowed.getDatabase(
+						DATABASE_PREFIX + fingerprintOfMigrations.substring(0, 16),
+						new MigrationSnapshots(migrations, migrated -> migrate(migrated, timings))
+					);
+					timings.record(Timings.DATABASE_INITIALIZATION, startOfDatabase);
+					lease.set(borrowed);
+					return dataSource;
+				} catch (SQLException | RuntimeException exception) {
+					borrowed.close();
+					throw exception;
+				}
+			} catch (IOException | SQLException exception) {
+				failure.set(new RuntimeException(exception));
+				throw failure.get();
+			} catch (RuntimeException exception) {
+				failure.set(exception);
+				throw exception;
 			}
 		});
+		final QueryPlans plans = explain ? new QueryPlans(minimumRowsOfLargeTable, explainCostTolerance) : null;
+		try {
+			createJavaFilesFrom(files, output, fingerprints, cache, fingerprintOfMigrations, database, timings, plans);
+			if (plans != null) {
+				explain(plans, database.get(), timings, fingerprints.getPaths());
+			}
+		} finally {
+			final SharedPostgres.Lease borrowed = lease.get();
+			if (borrowed != null) {
+				borrowed.close();
+			}
+			final File report = getReportFile();
+			timings.writeTo(report);
+			getLogger().info("Wrote timings to '{}'.", report);
+			timings.logSlowestFiles(getLogger(), NUMBER_OF_SLOWEST_FILES_TO_LOG);
+		}
+	}
+
+	private void explain(QueryPlans plans, DataSource database, Timings timings, Set<String> paths) throws IOException {
+		final long startOfExplain = Timings.now();
+		try {
+			plans.explain(database, getExplainFixture());
+		} catch (SQLException exception) {
+			throw new RuntimeException("Could not explain the queries!", exception);
+		}
+		timings.record(Timings.EXPLAIN, startOfExplain);
+		final File report = new File(new File(getProject().getBuildDir(), REPORTS_DIRECTORY), getName() + PLANS_REPORT_SUFFIX);
+		plans.writeTo(report, paths);
+		getLogger().info("Wrote query plans to '{}'.", report);
+		final File baseline = getExplainBaseline();
+		if (baseline != null) {
+			final List<String> regressions = plans.getRegressionsSince(baseline, getLogger());
+			if (regressions.isEmpty() == false) {
+				throw new IllegalStateException("The plans of " + regressions.size() + " queries are worse than in '" + baseline + "':" + System.lineSeparator() + String.join(System.lineSeparator(), regressions));
+			}
+		}
+	}
+
+	private void migrate(DataSource dataSource, Timings timings) {
+		final Flyway flyway = new Flyway();
+		flyway.setDataSource(dataSource);
+		flyway.setLocations(Iterables.toArray(Iterables.transform(migrationDirectories, migrationDirectory -> {
+			return "filesystem:" + migrationDirectory.getAbsolutePath();
+		}), String.class));
+		flyway.setPlaceholders(migrationPlaceholders);
+		flyway.setCallbacks(new MigrationTimer(timings));
+		flyway.migrate();
+	}
+
+	private File getReportFile() {
+		return new File(new File(getProject().getBuildDir(), REPORTS_DIRECTORY), getName() + ".json");
 	}
 
-	public static final String SCHEMA_PREFIX = "-- Schema: ";
+	private File getCacheDirectory(String name) {
+		final Gradle gradle = getProject().getGradle();
+		File projectCacheDirectory = gradle.getStartParameter().getProjectCacheDir();
+		if (projectCacheDirectory == null) {
+			projectCacheDirectory = new File(gradle.getRootProject().getProjectDir(), ".gradle");
+		}
+		return new File(projectCacheDirectory, name);
+	}
+
+	private void createJavaFilesFrom(
+		List<SQLFile> files,
+		File output,
+		Fingerprints fingerprints,
+		MetadataCache cache,
+		String fingerprintOfMigrations,
+		Supplier<DataSource> database,
+		Timings timings,
+		QueryPlans plans
+	) {
+		final int numberOfFiles = files.size();
+		final int numberOfWorkers = Math.max(1, Math.min(maxParallelism, numberOfFiles));
+		final AtomicInteger indexOfNextFile = new AtomicInteger();
+		final AtomicBoolean hasFailed = new AtomicBoolean();
+		final RuntimeException[] failures = new RuntimeException[numberOfFiles];
+		final ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers);
+		try {
+			final List<Future<?>> workers = new ArrayList<>(numberOfWorkers);
+			for (int count = 0; count < numberOfWorkers; count ++) {
+				workers.add(executor.submit(() -> {
+					final AutoIndentingWriter writer = new AutoIndentingWriter();
+					try (final SQLAnalyzer analyzer = new SQLAnalyzer(database, timings)) {
+						while (hasFailed.get() == false) {
+							final int index = indexOfNextFile.getAndIncrement();
+							if (index >= numberOfFiles) {
+								break;
+							}
+							final SQLFile file = files.get(index);
+							try {
+								final Set<String> supportClasses = createJavaFileFrom(file, analyzer, writer, cache, fingerprintOfMigrations, output, timings, plans);
+								fingerprints.put(file.getRelativePath().getPathString(), file.getFingerprint(), supportClasses);
+							} catch (RuntimeException exception) {
+								failures[index] = exception;
+								hasFailed.set(true);
+							}
+						}
+					}
+					return null;
+				}));
+			}
+			for (final Future<?> worker : workers) {
+				try {
+					worker.get();
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException(exception);
+				} catch (ExecutionException exception) {
+					throw new RuntimeException(exception.getCause());
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		for (final RuntimeException failure : failures) {
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
 
-	private static String getSchemaFrom(File sqlFile, String sql) {
-		for (final String line : Splitter.on(LINE_BREAK).split(sql)) {
-			if (line.startsWith(SCHEMA_PREFIX)) {
-				return line.substring(SCHEMA_PREFIX.length());
+	private Set<String> createJavaFileFrom(
+		SQLFile file,
+		SQLAnalyzer analyzer,
+		AutoIndentingWriter writer,
+		MetadataCache cache,
+		String fingerprintOfMigrations,
+		File output,
+		Timings timings,
+		QueryPlans plans
+	) {
+		final RelativePath relative = file.getRelativePath();
+		getLogger().info("Creating Java file from '{}'...", relative);
+		final File sqlFile = file.getFile();
+		final Path javaFile = file.getJavaFile(output);
+		final String path = relative.getPathString();
+		final String namespace = file.getNamespace();
+		try {
+			final ParsedSQL sql = ParsedSQL.parse(Files.toString(sqlFile, UTF_8));
+			final String searchPath = schemas.get(getSchemaFrom(sqlFile, sql));
+			final String key = MetadataCache.getKeyOf(sql.getSql(), searchPath, fingerprintOfMigrations);
+			QueryMetadata metadata = cache.get(key);
+			if (metadata == null) {
+				try (final PreparedStatement statement = analyzer.prepare(searchPath, sql.getJdbcSql())) {
+					final long startOfDescribe = Timings.now();
+					metadata = QueryMetadata.from(sql.getParameterNames(), statement);
+					timings.recordFile(path, Timings.DESCRIBE, startOfDescribe);
+				} catch (SQLException exception) {
+					throw new RuntimeException(sqlFile + " is not valid SQL!", exception);
+				}
+				cache.put(key, metadata);
+			} else {
+				getLogger().debug("Using cached metadata for '{}'.", relative);
 			}
+			if (plans != null) {
+				plans.add(path, searchPath, sql.getJdbcSql(), metadata.getParameters());
+			}
+			final long startOfRender = Timings.now();
+			writer.reset();
+			final JavaClassWriter javaClass = ImmutableJavaClassWriter
+				.builder()
+				.namespace(namespace)
+				.className(file.getClassName())
+				.sql(sql)
+				.parameters(metadata.getParameters())
+				.resultColumns(metadata.getResultColumns())
+				.supportPackage(supportPackage)
+				.addAllBackends(backends)
+				.fetchSize(fetchSize == null ? OptionalInt.empty() : OptionalInt.of(fetchSize))
+				.build();
+			javaClass.writeTo(writer);
+			timings.recordFile(path, Timings.RENDER, startOfRender);
+			final long startOfWrite = Timings.now();
+			final boolean hasChanged = writer.writeTo(javaFile);
+			timings.recordFile(path, Timings.WRITE, startOfWrite);
+			if (hasChanged == false) {
+				getLogger().debug("'{}' has not changed, so it was not rewritten.", output.toPath().relativize(javaFile));
+			}
+			return javaClass.getSupportClasses();
+		} catch (IOException exception) {
+			throw new RuntimeException(exception);
 		}
-		throw new NoSuchElementException(sqlFile + " does not specify a schema!");
+	}
+
+	private String getFingerprintOfEnvironment(Migrations migrations) {
+		final Hasher hasher = sha256().newHasher();
+		hasher.putString(migrations.getFingerprint(), UTF_8);
+		Fingerprints.putAll(hasher, schemas);
+		return hasher.hash().toString();
+	}
+
+	private Migrations getMigrations() throws IOException {
+		return Migrations.from(getProject(), migrationDirectories, migrationPlaceholders);
+	}
+
+	private static String getFingerprintOf(SQLFile file, String fingerprintOfEnvironment) {
+		try {
+			return sha256()
+				.newHasher()
+				.putString(fingerprintOfEnvironment, UTF_8)
+				.putString(file.getRelativePath().getPathString(), UTF_8)
+				.putBytes(Files.toByteArray(file.getFile()))
+				.hash()
+				.toString();
+		} catch (IOException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+
+	private static String getSchemaFrom(File sqlFile, ParsedSQL sql) {
+		return sql.getDirective(SCHEMA_DIRECTIVE).orElseThrow(() -> {
+			return new NoSuchElementException(sqlFile + " does not specify a schema!");
+		});
 	}
 
 }
@@ -2,6 +2,6 @@ package com.github.ryanholdren.typesafesql;
 
 public class TypeSafeSQLTestTask extends TypeSafeSQLTask {
 	public TypeSafeSQLTestTask() {
-		super("src/test/sql", "build/typesafesql/test");
+		super("src/test/sql", "build/typesafesql/test", "typesafesql.test");
 	}
 }
@@ -0,0 +1,35 @@
+package com.github.ryanholdren.typesafesql;
+
+import static java.util.Arrays.asList;
+import java.util.EnumSet;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class ArrayCodecTest {
+
+	private static final Set<PostgresType> BINARY = EnumSet.copyOf(asList(
+		PostgresType.DOUBLE_ARRAY,
+		PostgresType.FLOAT_LIST,
+		PostgresType.INTEGER_ARRAY,
+		PostgresType.LONG_ARRAY,
+		PostgresType.OPTIONAL_DOUBLE_ARRAY,
+		PostgresType.OPTIONAL_FLOAT_LIST,
+		PostgresType.OPTIONAL_INTEGER_ARRAY,
+		PostgresType.OPTIONAL_LONG_ARRAY,
+		PostgresType.OPTIONAL_SHORT_LIST,
+		PostgresType.OPTIONAL_STRING_ARRAY,
+		PostgresType.SHORT_LIST,
+		PostgresType.STRING_ARRAY
+	));
+
+	@Test
+	public void decodesOnlyArraysOfNumbersAndTextInBinary() {
+		for (final PostgresType type : PostgresType.values()) {
+			if (type.isArray()) {
+				assertEquals(type.toString(), BINARY.contains(type), JdbcCodec.hasBinaryDecoder(type));
+			}
+		}
+	}
+
+}
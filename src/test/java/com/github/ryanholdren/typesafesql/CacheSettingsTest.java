@@ -0,0 +1,70 @@
+package com.github.ryanholdren.typesafesql;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class CacheSettingsTest {
+
+	@Test
+	public void usesTheDefaultsWhenNothingIsSpecified() {
+		final CacheSettings settings = CacheSettings.from("");
+		assertEquals(CacheSettings.DEFAULT_MAXIMUM_SIZE, settings.getMaximumSize());
+		assertEquals(0, settings.getTimeToLiveMillis());
+	}
+
+	@Test
+	public void parsesEverySetting() {
+		final CacheSettings settings = CacheSettings.from(" maxSize = 10000 , ttl = 30s ");
+		assertEquals(10000, settings.getMaximumSize());
+		assertEquals(30000, settings.getTimeToLiveMillis());
+	}
+
+	@Test
+	public void parsesEveryUnitOfDuration() {
+		assertEquals(250, CacheSettings.from("ttl=250ms").getTimeToLiveMillis());
+		assertEquals(5000, CacheSettings.from("ttl=5s").getTimeToLiveMillis());
+		assertEquals(120000, CacheSettings.from("ttl=2m").getTimeToLiveMillis());
+		assertEquals(3600000, CacheSettings.from("ttl=1h").getTimeToLiveMillis());
+	}
+
+	@Test
+	public void treatsDurationsWithoutAUnitAsSeconds() {
+		assertEquals(7000, CacheSettings.from("ttl=7").getTimeToLiveMillis());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnknownSettings() {
+		CacheSettings.from("maxSize=10, size=20");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsSettingsWithoutValues() {
+		CacheSettings.from("maxSize");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsRepeatedSettings() {
+		CacheSettings.from("maxSize=10, maxSize=20");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMaximumSizesThatAreNotNumbers() {
+		CacheSettings.from("maxSize=lots");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMaximumSizesThatAreNotPositive() {
+		CacheSettings.from("maxSize=0");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnknownUnitsOfDuration() {
+		CacheSettings.from("ttl=3d");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNegativeDurations() {
+		CacheSettings.from("ttl=-5s");
+	}
+
+}
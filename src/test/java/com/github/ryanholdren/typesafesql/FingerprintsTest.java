@@ -0,0 +1,112 @@
+package com.github.ryanholdren.typesafesql;
+
+import com.google.common.hash.Hasher;
+import static com.google.common.hash.Hashing.sha256;
+import java.io.File;
+import java.io.IOException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Files;
+import static java.util.Arrays.asList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class FingerprintsTest {
+
+	private static File createManifest() throws IOException {
+		final File directory = Files.createTempDirectory("fingerprints").toFile();
+		directory.deleteOnExit();
+		final File file = new File(directory, "fingerprints.txt");
+		file.deleteOnExit();
+		return file;
+	}
+
+	@Test
+	public void loadsNothingWhenThereIsNoManifest() throws IOException {
+		final Fingerprints fingerprints = Fingerprints.loadFrom(createManifest());
+		assertTrue(fingerprints.getPaths().isEmpty());
+		assertTrue(fingerprints.getOutputs().isEmpty());
+	}
+
+	@Test
+	public void savesAndLoadsFingerprintsAndOutputs() throws IOException {
+		final File file = createManifest();
+		final Fingerprints saved = Fingerprints.emptyAt(file);
+		saved.put("com/example/Find People.sql", "abc", new TreeSet<>(asList("QueryCache", "QueryDescriptor")));
+		saved.put("com/example/Count.sql", "def", Collections.emptySet());
+		saved.setOutputs(asList("com/example/FindPeople.java", "support/QueryDescriptor.java"));
+		saved.save();
+		final Fingerprints loaded = Fingerprints.loadFrom(file);
+		assertEquals(new TreeSet<>(asList("com/example/Count.sql", "com/example/Find People.sql")), loaded.getPaths());
+		assertTrue(loaded.matches("com/example/Find People.sql", "abc"));
+		assertTrue(loaded.matches("com/example/Count.sql", "def"));
+		assertFalse(loaded.matches("com/example/Count.sql", "abc"));
+		assertEquals(new TreeSet<>(asList("com/example/FindPeople.java", "support/QueryDescriptor.java")), loaded.getOutputs());
+		assertEquals(new TreeSet<>(asList("QueryCache", "QueryDescriptor")), loaded.getSupportClasses());
+	}
+
+	@Test
+	public void doesNotMatchPathsWhoseSupportClassesAreUnknown() throws IOException {
+		final File file = createManifest();
+		Files.write(file.toPath(), asList("abc a.sql"), UTF_8);
+		final Fingerprints loaded = Fingerprints.loadFrom(file);
+		assertEquals(new TreeSet<>(asList("a.sql")), loaded.getPaths());
+		assertFalse(loaded.matches("a.sql", "abc"));
+	}
+
+	@Test
+	public void usesOnlyTheSupportClassesOfRemainingPaths() throws IOException {
+		final Fingerprints fingerprints = Fingerprints.emptyAt(createManifest());
+		fingerprints.put("a.sql", "abc", new TreeSet<>(asList("QueryCache", "QueryDescriptor")));
+		fingerprints.put("b.sql", "def", new TreeSet<>(asList("PostgresArrays", "QueryDescriptor")));
+		fingerprints.remove("a.sql");
+		assertEquals(new TreeSet<>(asList("PostgresArrays", "QueryDescriptor")), fingerprints.getSupportClasses());
+	}
+
+	@Test
+	public void forgetsRemovedPaths() throws IOException {
+		final Fingerprints fingerprints = Fingerprints.emptyAt(createManifest());
+		fingerprints.put("a.sql", "abc", Collections.emptySet());
+		fingerprints.remove("a.sql");
+		assertFalse(fingerprints.matches("a.sql", "abc"));
+		assertTrue(fingerprints.getPaths().isEmpty());
+	}
+
+	@Test
+	public void replacesOutputs() throws IOException {
+		final Fingerprints fingerprints = Fingerprints.emptyAt(createManifest());
+		fingerprints.setOutputs(asList("A.java", "B.java"));
+		fingerprints.setOutputs(asList("B.java"));
+		assertEquals(new TreeSet<>(asList("B.java")), fingerprints.getOutputs());
+	}
+
+	@Test
+	public void hashesMapsRegardlessOfTheirOrder() {
+		final Map<String, String> ordered = new LinkedHashMap<>();
+		ordered.put("b", "2");
+		ordered.put("a", "1");
+		final Map<String, String> unordered = new HashMap<>();
+		unordered.put("a", "1");
+		unordered.put("b", "2");
+		assertEquals(hash(ordered), hash(unordered));
+	}
+
+	@Test
+	public void distinguishesMissingMapsFromEmptyOnes() {
+		assertNotEquals(hash(null), hash(Collections.emptyMap()));
+	}
+
+	private static String hash(Map<String, String> map) {
+		final Hasher hasher = sha256().newHasher();
+		Fingerprints.putAll(hasher, map);
+		return hasher.hash().toString();
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.github.ryanholdren.typesafesql;
+
+import com.github.ryanholdren.typesafesql.ResultColumns.Many;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.SQLException;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class JavaClassWriterTest {
+
+	private static JavaClassWriter getWriterOf(String sql, ResultColumns columns, PostgresField ... parameters) {
+		return ImmutableJavaClassWriter
+			.builder()
+			.namespace("com.example")
+			.className("Example")
+			.sql(ParsedSQL.parse("-- Schema: public\n" + sql))
+			.parameters(Parameters.of(parameters))
+			.resultColumns(columns)
+			.supportPackage("typesafesql")
+			.addAllBackends(asList(Backend.values()))
+			.build();
+	}
+
+	private static Many getColumnsOf(int numberOfLongs, int numberOfInts) throws SQLException {
+		final PostgresField[] columns = new PostgresField[numberOfLongs + numberOfInts];
+		for (int index = 0; index < columns.length; index ++) {
+			columns[index] = PostgresField.from("column" + index, index < numberOfLongs ? "int8" : "int4", false);
+		}
+		return (Many) ResultColumns.of(columns);
+	}
+
+	private static String getCodeOf(JavaClassWriter writer) throws IOException {
+		final StringWriter code = new StringWriter();
+		try (final BufferedWriter buffered = new BufferedWriter(code)) {
+			writer.writeTo(buffered);
+		}
+		return code.toString();
+	}
+
+	@Test
+	public void constructsResultsDirectlyUpToTheLimitOfParameterSlots() throws SQLException {
+		assertTrue(JavaClassWriter.canBeConstructedDirectly(getColumnsOf(126, 1)));
+		assertTrue(JavaClassWriter.canBeConstructedDirectly(getColumnsOf(0, 253)));
+	}
+
+	@Test
+	public void leavesRoomForTheReceiverAndTheOriginalOfACopy() throws SQLException {
+		assertFalse(JavaClassWriter.canBeConstructedDirectly(getColumnsOf(127, 0)));
+		assertFalse(JavaClassWriter.canBeConstructedDirectly(getColumnsOf(126, 2)));
+		assertFalse(JavaClassWriter.canBeConstructedDirectly(getColumnsOf(0, 254)));
+	}
+
+	@Test
+	public void batchesPlainInsertsAsOneMultiRowStatement() throws SQLException {
+		final JavaClassWriter writer = getWriterOf("INSERT INTO people (id, name) VALUES (:id, :name)", ResultColumns.None.NONE, PostgresField.from("id", "int8", false), PostgresField.from("name", "text", false));
+		assertEquals("INSERT INTO people (id, name) VALUES ", writer.getMultiRowInsert().get().getMultiRowInsertSql());
+	}
+
+	@Test
+	public void doesNotBatchOtherStatementsAsMultiRowStatements() throws SQLException {
+		final JavaClassWriter update = getWriterOf("UPDATE people SET name = :name WHERE id = :id", ResultColumns.None.NONE, PostgresField.from("name", "text", false), PostgresField.from("id", "int8", false));
+		assertFalse(update.getMultiRowInsert().isPresent());
+		final JavaClassWriter upsert = getWriterOf("INSERT INTO people (id, name) VALUES (:id, :name) ON CONFLICT (id) DO NOTHING", ResultColumns.None.NONE, PostgresField.from("id", "int8", false), PostgresField.from("name", "text", false));
+		assertFalse(upsert.getMultiRowInsert().isPresent());
+	}
+
+	@Test
+	public void invalidatesCachesAfterWritesThatReturnRows() throws IOException, SQLException {
+		final JavaClassWriter writer = getWriterOf("INSERT INTO people (name) VALUES (:name) RETURNING id", ResultColumns.of(PostgresField.from("id", "int8", false)), PostgresField.from("name", "text", false));
+		assertTrue(writer.hasWrittenTables());
+		final String code = getCodeOf(writer);
+		assertTrue(code.contains("QueryCache.invalidateTables(\"people\");"));
+		assertTrue(code.contains(".map(PgAsync::decode).doOnComplete(Example::invalidateCaches).doOnCancel(Example::invalidateCaches)"));
+		assertTrue(code.contains("\tinvalidateCaches();"));
+		assertTrue(code.contains("decode(row))).doOnComplete(Example::invalidateCaches).doOnCancel(Example::invalidateCaches)"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void doesNotCacheWritesThatReturnRows() throws SQLException {
+		getWriterOf("-- Cache: ttl=5m\nDELETE FROM people RETURNING id", ResultColumns.of(PostgresField.from("id", "int8", false))).isCached();
+	}
+
+}
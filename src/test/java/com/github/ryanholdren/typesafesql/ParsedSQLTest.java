@@ -0,0 +1,112 @@
+package com.github.ryanholdren.typesafesql;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import java.util.Optional;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Test;
+
+public class ParsedSQLTest {
+
+	private static String getSegmentsOf(ParsedSQL sql) {
+		final StringBuilder segments = new StringBuilder();
+		for (final ParsedSQL.Segment segment : sql.getSegments()) {
+			if (segment.isParameter()) {
+				segments.append('{').append(segment.getParameterIndex()).append(':').append(segment.getText()).append('}');
+			} else {
+				segments.append(segment.getText());
+			}
+		}
+		return segments.toString();
+	}
+
+	@Test
+	public void replacesEachOccurrenceOfAParameter() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT * FROM t WHERE a = :a AND b = :b OR a = :a");
+		assertEquals(asList("a", "b", "a"), sql.getParameterNames());
+		assertEquals("SELECT * FROM t WHERE a = ? AND b = ? OR a = ?", sql.getJdbcSql());
+		assertEquals("SELECT * FROM t WHERE a = {0:a} AND b = {1:b} OR a = {2:a}", getSegmentsOf(sql));
+	}
+
+	@Test
+	public void doesNotTreatCastsAsParameters() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT :id::int8, x::text");
+		assertEquals(asList("id"), sql.getParameterNames());
+		assertEquals("SELECT ?::int8, x::text", sql.getJdbcSql());
+	}
+
+	@Test
+	public void doesNotTreatArraySlicesAsParameters() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT a[1:2], f(:x,:y) FROM t");
+		assertEquals(asList("x", "y"), sql.getParameterNames());
+		assertEquals("SELECT a[1:2], f(?,?) FROM t", sql.getJdbcSql());
+	}
+
+	@Test
+	public void ignoresParametersInStrings() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT ':no', 'it''s :no' FROM t WHERE id = :id");
+		assertEquals(asList("id"), sql.getParameterNames());
+		assertEquals("SELECT ':no', 'it''s :no' FROM t WHERE id = ?", sql.getJdbcSql());
+	}
+
+	@Test
+	public void ignoresParametersInEscapeStrings() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT E'\\' :no', e'\\\\' FROM t WHERE id = :id");
+		assertEquals(asList("id"), sql.getParameterNames());
+		assertEquals("SELECT E'\\' :no', e'\\\\' FROM t WHERE id = ?", sql.getJdbcSql());
+	}
+
+	@Test
+	public void ignoresParametersInQuotedIdentifiers() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT \"a:b\", \"x\"\"y :no\" FROM t WHERE id = :id");
+		assertEquals(asList("id"), sql.getParameterNames());
+		assertEquals("SELECT \"a:b\", \"x\"\"y :no\" FROM t WHERE id = ?", sql.getJdbcSql());
+	}
+
+	@Test
+	public void ignoresParametersInDollarQuotedStrings() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT $$ :no $$, $tag$ $$ :no $tag$, $1 FROM t WHERE id = :id");
+		assertEquals(asList("id"), sql.getParameterNames());
+		assertEquals("SELECT $$ :no $$, $tag$ $$ :no $tag$, $1 FROM t WHERE id = ?", sql.getJdbcSql());
+	}
+
+	@Test
+	public void ignoresParametersInNestedBlockComments() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT 1 /* outer /* :no */ still :no */ + :id");
+		assertEquals(asList("id"), sql.getParameterNames());
+		assertEquals("SELECT 1 + {0:id}", getSegmentsOf(sql));
+	}
+
+	@Test
+	public void ignoresParametersInLineComments() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT :id -- :no\nFROM t");
+		assertEquals(asList("id"), sql.getParameterNames());
+		assertEquals("SELECT {0:id} FROM t", getSegmentsOf(sql));
+	}
+
+	@Test
+	public void readsDirectivesOutsideOfComments() {
+		final ParsedSQL sql = ParsedSQL.parse("-- Schema: public\r\n-- Implements: A\n-- Implements: B\n/*\n-- Schema: hidden\n*/SELECT 1");
+		assertEquals(Optional.of("public"), sql.getDirective("Schema"));
+		assertEquals(asList("public"), sql.getDirectives("Schema"));
+		assertEquals(asList("A", "B"), sql.getDirectives("Implements"));
+		assertEquals(emptyList(), sql.getDirectives("Cache"));
+		assertEquals("SELECT 1", getSegmentsOf(sql));
+	}
+
+	@Test
+	public void compactsWhitespaceAndStripsTheTrailingSemicolon() {
+		final ParsedSQL sql = ParsedSQL.parse("  SELECT  a ,\n\tb\n  FROM   t\n  WHERE x IN ( :x , 1 ) ;\n");
+		assertEquals("SELECT a, b FROM t WHERE x IN ({0:x}, 1)", getSegmentsOf(sql));
+		assertEquals("  SELECT  a ,\n\tb\n  FROM   t\n  WHERE x IN ( ? , 1 ) ;\n", sql.getJdbcSql());
+	}
+
+	@Test
+	public void keepsLineBreaksInStrings() {
+		final ParsedSQL sql = ParsedSQL.parse("SELECT 'line\none'\nFROM t");
+		assertFalse(sql.hasParameters());
+		assertEquals("SELECT 'line\none' FROM t", getSegmentsOf(sql));
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.github.ryanholdren.typesafesql;
+
+import static java.util.Arrays.asList;
+import java.util.TreeSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class TableReferencesTest {
+
+	private static TreeSet<String> tables(String ... tables) {
+		return new TreeSet<>(asList(tables));
+	}
+
+	@Test
+	public void findsTablesThatAreSelectedFromOrJoined() {
+		final TableReferences references = TableReferences.from("SELECT * FROM people p JOIN teams t ON t.id = p.team LEFT JOIN ONLY offices o ON o.id = t.office");
+		assertEquals(tables("offices", "people", "teams"), references.getReadTables());
+		assertTrue(references.getWrittenTables().isEmpty());
+	}
+
+	@Test
+	public void dropsSchemasAndFoldsUnquotedNamesToLowerCase() {
+		final TableReferences references = TableReferences.from("SELECT * FROM public.People JOIN hr . Teams ON true");
+		assertEquals(tables("people", "teams"), references.getReadTables());
+	}
+
+	@Test
+	public void keepsTheCaseOfQuotedNames() {
+		final TableReferences references = TableReferences.from("SELECT * FROM \"Hr\".\"Team \"\"A\"\"\" JOIN \"People\" ON true");
+		assertEquals(tables("People", "Team \"A\""), references.getReadTables());
+	}
+
+	@Test
+	public void findsTablesThatAreWritten() {
+		assertEquals(tables("people"), TableReferences.from("INSERT INTO people (name) VALUES (?)").getWrittenTables());
+		assertEquals(tables("people"), TableReferences.from("update ONLY people SET name = ?").getWrittenTables());
+		assertEquals(tables("people"), TableReferences.from("DELETE FROM public.people WHERE id = ?").getWrittenTables());
+		assertEquals(tables("people"), TableReferences.from("TRUNCATE people").getWrittenTables());
+		assertEquals(tables("people"), TableReferences.from("TRUNCATE TABLE people").getWrittenTables());
+	}
+
+	@Test
+	public void doesNotMistakeTheSetOfAnUpsertForATable() {
+		final TableReferences references = TableReferences.from("INSERT INTO people (id, name) VALUES (?, ?) ON CONFLICT (id) DO UPDATE SET name = excluded.name");
+		assertEquals(tables("people"), references.getWrittenTables());
+	}
+
+	@Test
+	public void findsTablesThatAreReadWhileWritingAnother() {
+		final TableReferences references = TableReferences.from("INSERT INTO archive SELECT * FROM people WHERE retired");
+		assertEquals(tables("archive"), references.getWrittenTables());
+		assertEquals(tables("people"), references.getReadTables());
+	}
+
+}